@@ -0,0 +1,146 @@
+package scot.oskar.hmcts.backend.reactive.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import scot.oskar.hmcts.backend.data.dto.TaskBatchResultDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskCreateDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskPageDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskUpdateDTO;
+import scot.oskar.hmcts.backend.data.model.Task;
+import scot.oskar.hmcts.backend.data.query.TaskFilter;
+import scot.oskar.hmcts.backend.reactive.service.ReactiveTaskService;
+import scot.oskar.hmcts.backend.service.TaskETags;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * The task API of the MVC application on WebFlux. Listings and exports can be streamed as
+ * newline-delimited JSON, written as rows arrive and only as fast as the client reads them.
+ */
+@RestController
+@RequestMapping("/api/tasks")
+@RequiredArgsConstructor
+public class ReactiveTaskController {
+
+    private final ReactiveTaskService taskService;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<TaskDTO> createTask(@Valid @RequestBody TaskCreateDTO taskCreateDTO) {
+        return taskService.createTask(taskCreateDTO);
+    }
+
+    @PostMapping("/batch")
+    public Mono<List<TaskBatchResultDTO>> createTasks(@RequestBody List<TaskCreateDTO> tasks) {
+        return taskService.createTasks(tasks);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<TaskDTO>> getTaskById(@PathVariable Long id, ServerWebExchange exchange) {
+        return taskService.getTaskById(id)
+                .flatMap(task -> exchange.checkNotModified(TaskETags.of(task), toInstant(task.getUpdatedAt()))
+                        ? Mono.empty()
+                        : Mono.just(withEntityTag(task)));
+    }
+
+    // JSON page with a cursor for the next one, also the default when the client accepts anything
+    @GetMapping
+    public Mono<TaskPageDTO> getTasks(
+            @RequestParam(required = false) Task.TaskStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dueBefore,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dueAfter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
+        return taskService.getTasks(filter(status, dueBefore, dueAfter, includeArchived), cursor, limit);
+    }
+
+    // Same page streamed one task per line; the client continues from the last task's due date and ID
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TaskDTO> streamTasks(
+            @RequestParam(required = false) Task.TaskStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dueBefore,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dueAfter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
+        return taskService.streamTasks(filter(status, dueBefore, dueAfter, includeArchived), cursor, limit);
+    }
+
+    @GetMapping(path = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TaskDTO> exportTasks(
+            @RequestParam(required = false) Task.TaskStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dueBefore,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dueAfter,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
+        return taskService.exportTasks(filter(status, dueBefore, dueAfter, includeArchived));
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<TaskDTO>> updateTask(
+            @PathVariable Long id,
+            @Valid @RequestBody TaskUpdateDTO taskUpdateDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return taskService.updateTask(id, taskUpdateDTO, ifMatch)
+                .map(ReactiveTaskController::withEntityTag);
+    }
+
+    @PatchMapping("/{id}/status")
+    public Mono<ResponseEntity<TaskDTO>> updateTaskStatus(@PathVariable Long id, @RequestParam Task.TaskStatus status) {
+        return taskService.updateTaskStatus(id, status)
+                .map(ReactiveTaskController::withEntityTag);
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> deleteTask(@PathVariable Long id) {
+        return taskService.deleteTask(id);
+    }
+
+    private static TaskFilter filter(Task.TaskStatus status, LocalDateTime dueBefore, LocalDateTime dueAfter,
+                                     boolean includeArchived) {
+        return TaskFilter.builder()
+                .status(status)
+                .dueBefore(dueBefore)
+                .dueAfter(dueAfter)
+                .includeArchived(includeArchived)
+                .build();
+    }
+
+    private static ResponseEntity<TaskDTO> withEntityTag(TaskDTO task) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(TaskETags.of(task));
+        if (task.getUpdatedAt() != null) {
+            response.lastModified(toInstant(task.getUpdatedAt()));
+        }
+        return response.body(task);
+    }
+
+    // Timestamps are stored as server local time
+    private static Instant toInstant(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant();
+    }
+}
@@ -0,0 +1,87 @@
+package scot.oskar.hmcts.backend.reactive.exception;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebInputException;
+import scot.oskar.hmcts.backend.exception.ApiError;
+import scot.oskar.hmcts.backend.exception.PreconditionFailedException;
+import scot.oskar.hmcts.backend.exception.ResourceNotFoundException;
+import scot.oskar.hmcts.backend.exception.ValidationException;
+
+import java.util.List;
+
+/**
+ * Same {@link ApiError} responses as the MVC application. Errors raised after a streamed
+ * response has started cannot change its status, so they end the stream instead.
+ */
+@RestControllerAdvice
+public class ReactiveExceptionHandler {
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    protected ResponseEntity<ApiError> handleResourceNotFound(ResourceNotFoundException ex) {
+        return buildResponseEntity(new ApiError(HttpStatus.NOT_FOUND, ex.getMessage()));
+    }
+
+    @ExceptionHandler(ValidationException.class)
+    protected ResponseEntity<ApiError> handleValidationException(ValidationException ex) {
+        return buildResponseEntity(new ApiError(HttpStatus.BAD_REQUEST, ex.getMessage()));
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    protected ResponseEntity<ApiError> handlePreconditionFailed(PreconditionFailedException ex) {
+        return buildResponseEntity(new ApiError(HttpStatus.PRECONDITION_FAILED, ex.getMessage()));
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    protected ResponseEntity<ApiError> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        ApiError apiError = new ApiError(HttpStatus.CONFLICT);
+        apiError.setMessage("Task was modified by another request, reload it and try again");
+        apiError.setDebugMessage(ex.getLocalizedMessage());
+        return buildResponseEntity(apiError);
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    protected ResponseEntity<ApiError> handleBindException(WebExchangeBindException ex) {
+        ApiError apiError = new ApiError(HttpStatus.BAD_REQUEST);
+        apiError.setMessage("Validation error");
+
+        List<String> errors = ex.getBindingResult().getFieldErrors().stream()
+                .map(FieldError::getDefaultMessage)
+                .toList();
+
+        apiError.setErrors(errors);
+        return buildResponseEntity(apiError);
+    }
+
+    // Unreadable bodies and missing or mistyped parameters
+    @ExceptionHandler(ServerWebInputException.class)
+    protected ResponseEntity<ApiError> handleServerWebInput(ServerWebInputException ex) {
+        return buildResponseEntity(new ApiError(HttpStatus.BAD_REQUEST, ex.getReason(), ex));
+    }
+
+    // Routing failures such as 404, 405 and 406 keep their status
+    @ExceptionHandler(ResponseStatusException.class)
+    protected ResponseEntity<ApiError> handleResponseStatus(ResponseStatusException ex) {
+        HttpStatus status = HttpStatus.resolve(ex.getStatusCode().value());
+        return buildResponseEntity(new ApiError(status != null ? status : HttpStatus.INTERNAL_SERVER_ERROR,
+                ex.getReason(), ex));
+    }
+
+    @ExceptionHandler(Exception.class)
+    protected ResponseEntity<ApiError> handleAllUncaughtException(Exception ex) {
+        ApiError apiError = new ApiError(HttpStatus.INTERNAL_SERVER_ERROR);
+        apiError.setMessage("An unexpected error occurred");
+        apiError.setDebugMessage(ex.getLocalizedMessage());
+        return buildResponseEntity(apiError);
+    }
+
+    private ResponseEntity<ApiError> buildResponseEntity(ApiError apiError) {
+        return new ResponseEntity<>(apiError, apiError.getStatus());
+    }
+}
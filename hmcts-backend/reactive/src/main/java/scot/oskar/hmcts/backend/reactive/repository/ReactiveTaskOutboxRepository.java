@@ -0,0 +1,30 @@
+package scot.oskar.hmcts.backend.reactive.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import scot.oskar.hmcts.backend.event.TaskChangedEvent;
+import reactor.core.publisher.Mono;
+
+/**
+ * Writes task change events to the outbox shared with the MVC application, whose relay publishes them.
+ * Callers provide the transaction, so an event is stored if and only if its change commits.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReactiveTaskOutboxRepository {
+
+    private final DatabaseClient databaseClient;
+    private final ObjectMapper objectMapper;
+
+    public Mono<Void> insert(TaskChangedEvent event) {
+        return Mono.fromCallable(() -> objectMapper.writeValueAsString(event))
+                .flatMap(payload -> databaseClient.sql(
+                                "INSERT INTO task_outbox (task_id, event_type, payload) VALUES (:taskId, :eventType, :payload)")
+                        .bind("taskId", event.getTaskId())
+                        .bind("eventType", event.getType().name())
+                        .bind("payload", payload)
+                        .then());
+    }
+}
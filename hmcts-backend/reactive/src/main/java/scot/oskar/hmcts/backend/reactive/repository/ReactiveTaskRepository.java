@@ -0,0 +1,178 @@
+package scot.oskar.hmcts.backend.reactive.repository;
+
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.Parameter;
+import org.springframework.stereotype.Repository;
+import scot.oskar.hmcts.backend.data.dto.TaskCreateDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskUpdateDTO;
+import scot.oskar.hmcts.backend.data.model.Task;
+import scot.oskar.hmcts.backend.data.query.TaskCursor;
+import scot.oskar.hmcts.backend.data.query.TaskFilter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * R2DBC access to the tasks table, with the same queries as the MVC application's repositories.
+ * Only the hot partition is read and written unless a filter includes the archive.
+ */
+@Repository
+public class ReactiveTaskRepository {
+
+    private static final String COLUMNS =
+            "id, title, description, status, due_date, created_at, updated_at, version, overdue_at";
+
+    private final DatabaseClient databaseClient;
+    private final int fetchSize;
+
+    public ReactiveTaskRepository(DatabaseClient databaseClient,
+                                  @Value("${tasks.export.fetch-size:500}") int fetchSize) {
+        this.databaseClient = databaseClient;
+        this.fetchSize = fetchSize;
+    }
+
+    public Mono<TaskDTO> findById(Long id) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM tasks WHERE id = :id AND NOT archived")
+                .bind("id", id)
+                .map(ReactiveTaskRepository::toDto)
+                .one();
+    }
+
+    /**
+     * Page of tasks in (dueDate, id) order, starting after the cursor
+     */
+    public Flux<TaskDTO> findPage(TaskFilter filter, TaskCursor after, int limit) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        StringBuilder sql = where(filter, params);
+        if (after != null) {
+            sql.append(" AND (due_date, id) > (:afterDueDate, :afterId)");
+            params.put("afterDueDate", after.getDueDate());
+            params.put("afterId", after.getId());
+        }
+        sql.append(" ORDER BY due_date, id LIMIT :limit");
+        params.put("limit", limit);
+        return bindAll(databaseClient.sql(sql.toString()), params)
+                .map(ReactiveTaskRepository::toDto)
+                .all();
+    }
+
+    /**
+     * Every matching task in ID order. Rows are fetched fetch-size at a time as the subscriber
+     * requests them, so a slow client holds back the query instead of filling memory.
+     */
+    public Flux<TaskDTO> stream(TaskFilter filter) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        StringBuilder sql = where(filter, params).append(" ORDER BY id");
+        return bindAll(databaseClient.sql(sql.toString()), params)
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(ReactiveTaskRepository::toDto)
+                .all();
+    }
+
+    public Mono<TaskDTO> insert(TaskCreateDTO task, LocalDateTime now) {
+        return databaseClient.sql("INSERT INTO tasks (title, description, status, due_date, created_at, updated_at) "
+                        + "VALUES (:title, :description, :status, :dueDate, :now, :now) RETURNING " + COLUMNS)
+                .bind("title", task.getTitle())
+                .bind("description", Parameter.fromOrEmpty(task.getDescription(), String.class))
+                .bind("status", task.getStatus().getCode())
+                .bind("dueDate", task.getDueDate())
+                .bind("now", now)
+                .map(ReactiveTaskRepository::toDto)
+                .one();
+    }
+
+    /**
+     * Apply an update if the task is still at the given version. A due date moved into the future
+     * clears the overdue flag, as it does in the MVC application.
+     *
+     * @return Updated task, or empty if the task has changed or no longer exists
+     */
+    public Mono<TaskDTO> update(Long id, long version, TaskUpdateDTO changes, LocalDateTime now) {
+        return databaseClient.sql("""
+                        UPDATE tasks
+                        SET title = COALESCE(:title, title),
+                            description = :description,
+                            status = :status,
+                            due_date = COALESCE(:dueDate, due_date),
+                            overdue_at = CASE WHEN COALESCE(:dueDate, due_date) > :now THEN NULL ELSE overdue_at END,
+                            updated_at = :now,
+                            version = version + 1
+                        WHERE id = :id AND version = :version AND NOT archived
+                        RETURNING\s""" + COLUMNS)
+                .bind("title", Parameter.fromOrEmpty(changes.getTitle(), String.class))
+                .bind("description", Parameter.fromOrEmpty(changes.getDescription(), String.class))
+                .bind("status", changes.getStatus().getCode())
+                .bind("dueDate", Parameter.fromOrEmpty(changes.getDueDate(), LocalDateTime.class))
+                .bind("now", now)
+                .bind("id", id)
+                .bind("version", version)
+                .map(ReactiveTaskRepository::toDto)
+                .one();
+    }
+
+    // Only the status is written, so this cannot lose another update
+    public Mono<TaskDTO> updateStatus(Long id, Task.TaskStatus status, LocalDateTime now) {
+        return databaseClient.sql("UPDATE tasks SET status = :status, updated_at = :now, version = version + 1 "
+                        + "WHERE id = :id AND NOT archived RETURNING " + COLUMNS)
+                .bind("status", status.getCode())
+                .bind("now", now)
+                .bind("id", id)
+                .map(ReactiveTaskRepository::toDto)
+                .one();
+    }
+
+    public Mono<Long> delete(Long id) {
+        return databaseClient.sql("DELETE FROM tasks WHERE id = :id AND NOT archived")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static StringBuilder where(TaskFilter filter, Map<String, Object> params) {
+        StringBuilder sql = new StringBuilder("SELECT " + COLUMNS + " FROM tasks WHERE true");
+        if (!filter.isIncludeArchived()) {
+            sql.append(" AND NOT archived");
+        }
+        if (filter.getStatus() != null) {
+            sql.append(" AND status = :status");
+            params.put("status", filter.getStatus().getCode());
+        }
+        if (filter.getDueBefore() != null) {
+            sql.append(" AND due_date < :dueBefore");
+            params.put("dueBefore", filter.getDueBefore());
+        }
+        if (filter.getDueAfter() != null) {
+            sql.append(" AND due_date >= :dueAfter");
+            params.put("dueAfter", filter.getDueAfter());
+        }
+        return sql;
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindAll(DatabaseClient.GenericExecuteSpec spec,
+                                                             Map<String, Object> params) {
+        for (Map.Entry<String, Object> param : params.entrySet()) {
+            spec = spec.bind(param.getKey(), param.getValue());
+        }
+        return spec;
+    }
+
+    private static TaskDTO toDto(Readable row) {
+        return TaskDTO.builder()
+                .id(row.get("id", Long.class))
+                .title(row.get("title", String.class))
+                .description(row.get("description", String.class))
+                .status(Task.TaskStatus.fromCode(row.get("status", Short.class)))
+                .dueDate(row.get("due_date", LocalDateTime.class))
+                .createdAt(row.get("created_at", LocalDateTime.class))
+                .updatedAt(row.get("updated_at", LocalDateTime.class))
+                .version(row.get("version", Long.class))
+                .overdueAt(row.get("overdue_at", LocalDateTime.class))
+                .build();
+    }
+}
@@ -0,0 +1,171 @@
+package scot.oskar.hmcts.backend.reactive.repository;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import scot.oskar.hmcts.backend.data.dto.TaskBatchResultDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskCreateDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskPageDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskUpdateDTO;
+import scot.oskar.hmcts.backend.data.model.Task;
+import scot.oskar.hmcts.backend.data.query.TaskCursor;
+import scot.oskar.hmcts.backend.data.query.TaskFilter;
+import scot.oskar.hmcts.backend.event.TaskChangedEvent;
+import scot.oskar.hmcts.backend.exception.PreconditionFailedException;
+import scot.oskar.hmcts.backend.exception.ResourceNotFoundException;
+import scot.oskar.hmcts.backend.exception.ValidationException;
+import scot.oskar.hmcts.backend.reactive.service.ReactiveTaskService;
+import scot.oskar.hmcts.backend.service.TaskETags;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static scot.oskar.hmcts.backend.service.TaskService.DEFAULT_PAGE_SIZE;
+import static scot.oskar.hmcts.backend.service.TaskService.MAX_BATCH_SIZE;
+import static scot.oskar.hmcts.backend.service.TaskService.MAX_PAGE_SIZE;
+
+@Service
+@RequiredArgsConstructor
+public class ReactiveTaskServiceImpl implements ReactiveTaskService {
+
+    private final ReactiveTaskRepository taskRepository;
+    private final ReactiveTaskOutboxRepository outboxRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final Validator validator;
+
+    @Override
+    public Mono<TaskDTO> createTask(TaskCreateDTO taskCreateDTO) {
+        return taskRepository.insert(taskCreateDTO, LocalDateTime.now())
+                .flatMap(created -> outboxRepository.insert(TaskChangedEvent.created(created)).thenReturn(created))
+                .as(transactionalOperator::transactional);
+    }
+
+    // Items are inserted one after another on the transaction's connection, invalid ones are reported in place
+    @Override
+    public Mono<List<TaskBatchResultDTO>> createTasks(List<TaskCreateDTO> tasks) {
+        if (tasks == null || tasks.isEmpty() || tasks.size() > MAX_BATCH_SIZE) {
+            return Mono.error(new ValidationException("Batch must contain between 1 and " + MAX_BATCH_SIZE + " items"));
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return Flux.range(0, tasks.size())
+                .concatMap(i -> {
+                    List<String> errors = validate(tasks.get(i));
+                    if (!errors.isEmpty()) {
+                        return Mono.just(TaskBatchResultDTO.failure(i, HttpStatus.BAD_REQUEST, errors));
+                    }
+                    return taskRepository.insert(tasks.get(i), now)
+                            .flatMap(created -> outboxRepository.insert(TaskChangedEvent.created(created))
+                                    .thenReturn(TaskBatchResultDTO.success(i, HttpStatus.CREATED, created)));
+                })
+                .collectList()
+                .as(transactionalOperator::transactional);
+    }
+
+    @Override
+    public Mono<TaskDTO> getTaskById(Long id) {
+        return taskRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> taskNotFound(id)));
+    }
+
+    @Override
+    public Mono<TaskPageDTO> getTasks(TaskFilter filter, String cursor, Integer limit) {
+        return Mono.fromCallable(() -> resolvePageSize(limit))
+                .flatMap(pageSize -> findPage(filter, cursor, pageSize + 1)
+                        .collectList()
+                        .map(tasks -> {
+                            // One extra row was fetched to find out whether another page follows
+                            boolean hasMore = tasks.size() > pageSize;
+                            List<TaskDTO> page = hasMore ? tasks.subList(0, pageSize) : tasks;
+                            return TaskPageDTO.builder()
+                                    .items(page)
+                                    .nextCursor(hasMore ? TaskCursor.of(page.get(page.size() - 1)).encode() : null)
+                                    .build();
+                        }));
+    }
+
+    @Override
+    public Flux<TaskDTO> streamTasks(TaskFilter filter, String cursor, Integer limit) {
+        return Mono.fromCallable(() -> resolvePageSize(limit))
+                .flatMapMany(pageSize -> findPage(filter, cursor, pageSize));
+    }
+
+    @Override
+    public Flux<TaskDTO> exportTasks(TaskFilter filter) {
+        return taskRepository.stream(filter != null ? filter : TaskFilter.none());
+    }
+
+    @Override
+    public Mono<TaskDTO> updateTask(Long id, TaskUpdateDTO taskUpdateDTO, String ifMatch) {
+        return getTaskById(id)
+                .flatMap(task -> {
+                    if (ifMatch != null && !TaskETags.matches(ifMatch, TaskETags.of(task))) {
+                        return Mono.error(new PreconditionFailedException("Task " + id + " has been modified"));
+                    }
+                    Long expectedVersion = taskUpdateDTO.getVersion();
+                    if (expectedVersion != null && !expectedVersion.equals(task.getVersion())) {
+                        return Mono.error(staleTask(id));
+                    }
+                    // Conditional on the version just read, so a concurrent write fails here rather than being lost
+                    return taskRepository.update(id, task.getVersion(), taskUpdateDTO, LocalDateTime.now())
+                            .switchIfEmpty(Mono.error(() -> staleTask(id)));
+                })
+                .flatMap(updated -> outboxRepository.insert(TaskChangedEvent.updated(updated)).thenReturn(updated))
+                .as(transactionalOperator::transactional);
+    }
+
+    @Override
+    public Mono<TaskDTO> updateTaskStatus(Long id, Task.TaskStatus status) {
+        return taskRepository.updateStatus(id, status, LocalDateTime.now())
+                .switchIfEmpty(Mono.error(() -> taskNotFound(id)))
+                .flatMap(updated -> outboxRepository.insert(TaskChangedEvent.statusChanged(updated)).thenReturn(updated))
+                .as(transactionalOperator::transactional);
+    }
+
+    @Override
+    public Mono<Void> deleteTask(Long id) {
+        return taskRepository.delete(id)
+                .flatMap(deleted -> deleted == 0
+                        ? Mono.<Void>error(taskNotFound(id))
+                        : outboxRepository.insert(TaskChangedEvent.deleted(id)))
+                .as(transactionalOperator::transactional);
+    }
+
+    private Flux<TaskDTO> findPage(TaskFilter filter, String cursor, int limit) {
+        TaskCursor after = cursor == null || cursor.isBlank() ? null : TaskCursor.decode(cursor);
+        return taskRepository.findPage(filter != null ? filter : TaskFilter.none(), after, limit);
+    }
+
+    private List<String> validate(Object item) {
+        if (item == null) {
+            return List.of("Item is required");
+        }
+        return validator.validate(item).stream()
+                .map(ConstraintViolation::getMessage)
+                .toList();
+    }
+
+    private static int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ValidationException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return limit;
+    }
+
+    private static OptimisticLockingFailureException staleTask(Long id) {
+        return new OptimisticLockingFailureException("Task " + id + " has been modified");
+    }
+
+    private static ResourceNotFoundException taskNotFound(Long id) {
+        return new ResourceNotFoundException("Task not found with id: " + id);
+    }
+}
@@ -0,0 +1,99 @@
+package scot.oskar.hmcts.backend.reactive.service;
+
+import scot.oskar.hmcts.backend.data.dto.TaskBatchResultDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskCreateDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskPageDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskUpdateDTO;
+import scot.oskar.hmcts.backend.data.model.Task;
+import scot.oskar.hmcts.backend.data.query.TaskFilter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link scot.oskar.hmcts.backend.service.TaskService}, with the same
+ * limits and error semantics.
+ */
+public interface ReactiveTaskService {
+
+    /**
+     * Create a new task
+     *
+     * @param taskCreateDTO Task creation data
+     * @return Created task
+     */
+    Mono<TaskDTO> createTask(TaskCreateDTO taskCreateDTO);
+
+    /**
+     * Create several tasks in one transaction
+     *
+     * @param tasks Task creation data
+     * @return Result for each item, in request order
+     */
+    Mono<List<TaskBatchResultDTO>> createTasks(List<TaskCreateDTO> tasks);
+
+    /**
+     * Get task by ID
+     *
+     * @param id Task ID
+     * @return Task, or an error if it does not exist
+     */
+    Mono<TaskDTO> getTaskById(Long id);
+
+    /**
+     * Get a page of tasks ordered by due date
+     *
+     * @param filter Filters to apply
+     * @param cursor Continuation token from a previous page, or null for the first page
+     * @param limit Page size, or null for the default
+     * @return Page of tasks with the token for the next page
+     */
+    Mono<TaskPageDTO> getTasks(TaskFilter filter, String cursor, Integer limit);
+
+    /**
+     * Stream a page of tasks ordered by due date, as each row arrives
+     *
+     * @param filter Filters to apply
+     * @param cursor Continuation token from a previous page, or null for the first page
+     * @param limit Page size, or null for the default
+     * @return Tasks on the page
+     */
+    Flux<TaskDTO> streamTasks(TaskFilter filter, String cursor, Integer limit);
+
+    /**
+     * Stream every task matching a filter, fetched as the subscriber requests them
+     *
+     * @param filter Filters to apply
+     * @return Matching tasks in ID order
+     */
+    Flux<TaskDTO> exportTasks(TaskFilter filter);
+
+    /**
+     * Update a task
+     *
+     * @param id Task ID
+     * @param taskUpdateDTO Task update data
+     * @param ifMatch If-Match header from the request, or null when unconditional
+     * @return Updated task
+     */
+    Mono<TaskDTO> updateTask(Long id, TaskUpdateDTO taskUpdateDTO, String ifMatch);
+
+    /**
+     * Update task status
+     *
+     * @param id Task ID
+     * @param status New status
+     * @return Updated task
+     */
+    Mono<TaskDTO> updateTaskStatus(Long id, Task.TaskStatus status);
+
+    /**
+     * Delete a task
+     *
+     * @param id Task ID
+     * @return Completes once deleted, or an error if the task does not exist
+     */
+    Mono<Void> deleteTask(Long id);
+}
@@ -0,0 +1,142 @@
+package scot.oskar.hmcts.backend.reactive;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import scot.oskar.hmcts.backend.data.dto.TaskCreateDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskUpdateDTO;
+import scot.oskar.hmcts.backend.data.model.Task;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Testcontainers
+class ReactiveTaskControllerTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:14.3")
+            .withDatabaseName("test_db")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://" + POSTGRES.getHost() + ":"
+                + POSTGRES.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT) + "/" + POSTGRES.getDatabaseName());
+        registry.add("spring.r2dbc.username", POSTGRES::getUsername);
+        registry.add("spring.r2dbc.password", POSTGRES::getPassword);
+        registry.add("spring.flyway.url", POSTGRES::getJdbcUrl);
+    }
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    void createTask_ShouldReturnCreatedTask_AndFindItById() {
+        TaskDTO created = create("Review case", Task.TaskStatus.PENDING);
+
+        assertThat(created.getId()).isNotNull();
+        assertThat(created.getVersion()).isZero();
+        webTestClient.get().uri("/api/tasks/{id}", created.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .expectBody(TaskDTO.class)
+                .value(task -> assertThat(task.getTitle()).isEqualTo("Review case"));
+    }
+
+    @Test
+    void createTask_ShouldReturnApiError_WhenInvalid() {
+        webTestClient.post().uri("/api/tasks")
+                .bodyValue(TaskCreateDTO.builder().status(Task.TaskStatus.PENDING).build())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo("BAD_REQUEST")
+                .jsonPath("$.message").isEqualTo("Validation error")
+                .jsonPath("$.errors").isArray();
+    }
+
+    @Test
+    void getTaskById_ShouldReturnApiError_WhenMissing() {
+        webTestClient.get().uri("/api/tasks/{id}", Long.MAX_VALUE)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Task not found with id: " + Long.MAX_VALUE);
+    }
+
+    @Test
+    void updateTask_ShouldReturnConflict_WhenVersionIsStale() {
+        TaskDTO created = create("Stale update", Task.TaskStatus.PENDING);
+        TaskUpdateDTO update = TaskUpdateDTO.builder()
+                .status(Task.TaskStatus.IN_PROGRESS)
+                .version(created.getVersion())
+                .build();
+
+        webTestClient.put().uri("/api/tasks/{id}", created.getId())
+                .bodyValue(update)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(TaskDTO.class)
+                .value(task -> assertThat(task.getVersion()).isEqualTo(created.getVersion() + 1));
+        webTestClient.put().uri("/api/tasks/{id}", created.getId())
+                .bodyValue(update)
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    void exportTasks_ShouldStreamMatchingTasks_AsNdjson() {
+        TaskDTO first = create("Export one", Task.TaskStatus.CANCELLED);
+        TaskDTO second = create("Export two", Task.TaskStatus.CANCELLED);
+
+        Flux<TaskDTO> exported = webTestClient.get().uri("/api/tasks/export?status=CANCELLED")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(TaskDTO.class)
+                .getResponseBody();
+
+        StepVerifier.create(exported.map(TaskDTO::getId))
+                .expectNext(first.getId(), second.getId())
+                .verifyComplete();
+    }
+
+    @Test
+    void getTasks_ShouldReturnApiError_WhenPageSizeTooLarge() {
+        webTestClient.get().uri("/api/tasks?limit=500")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Page size must be between 1 and 200");
+    }
+
+    private TaskDTO create(String title, Task.TaskStatus status) {
+        return webTestClient.post().uri("/api/tasks")
+                .bodyValue(TaskCreateDTO.builder()
+                        .title(title)
+                        .status(status)
+                        .dueDate(LocalDateTime.now().plusDays(1).withNano(0))
+                        .build())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(TaskDTO.class)
+                .returnResult()
+                .getResponseBody();
+    }
+}
@@ -0,0 +1,47 @@
+package scot.oskar.hmcts.backend.benchmark;
+
+import scot.oskar.hmcts.backend.data.dto.TaskDTO;
+import scot.oskar.hmcts.backend.data.model.Task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic task fixtures shared by the benchmarks.
+ */
+final class BenchmarkTasks {
+
+    static final LocalDateTime BASE_TIME = LocalDateTime.of(2025, 1, 1, 9, 0);
+
+    private static final Task.TaskStatus[] STATUSES = Task.TaskStatus.values();
+
+    private BenchmarkTasks() {
+    }
+
+    static Task task(long id) {
+        return Task.builder()
+                .id(id)
+                .title("Review case bundle " + id)
+                .description("Check the bundle for hearing " + id + " and confirm all exhibits are present")
+                .status(STATUSES[(int) (id % STATUSES.length)])
+                // Due dates increase with the ID, which the in-memory repository relies on
+                .dueDate(BASE_TIME.plusMinutes(id))
+                .createdAt(BASE_TIME)
+                .updatedAt(BASE_TIME)
+                .version(0L)
+                .build();
+    }
+
+    static List<Task> tasks(int count) {
+        List<Task> tasks = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            tasks.add(task(id));
+        }
+        return tasks;
+    }
+
+    static List<TaskDTO> taskDTOs(int count) {
+        return tasks(count).stream().map(TaskDTO::fromEntity).toList();
+    }
+}
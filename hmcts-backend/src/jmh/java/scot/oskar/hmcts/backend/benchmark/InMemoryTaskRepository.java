@@ -0,0 +1,112 @@
+package scot.oskar.hmcts.backend.benchmark;
+
+import scot.oskar.hmcts.backend.data.dto.TaskDTO;
+import scot.oskar.hmcts.backend.data.model.Task;
+import scot.oskar.hmcts.backend.data.query.TaskCursor;
+import scot.oskar.hmcts.backend.data.query.TaskFilter;
+import scot.oskar.hmcts.backend.repository.TaskRepository;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Map-backed stand-in for {@link TaskRepository}, so service benchmarks measure the service
+ * rather than the database. Only the methods the service calls are supported, and pages
+ * assume due dates increase with the ID as they do in {@link BenchmarkTasks}.
+ */
+final class InMemoryTaskRepository {
+
+    private final NavigableMap<Long, Task> tasks = new ConcurrentSkipListMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    static TaskRepository create(List<Task> initialTasks) {
+        InMemoryTaskRepository store = new InMemoryTaskRepository();
+        initialTasks.forEach(store::save);
+        return (TaskRepository) Proxy.newProxyInstance(
+                TaskRepository.class.getClassLoader(),
+                new Class<?>[]{TaskRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "save" -> store.save((Task) args[0]);
+                    case "saveAll" -> store.saveAll((Iterable<?>) args[0]);
+                    case "findById" -> Optional.ofNullable(store.tasks.get((Long) args[0]));
+                    case "findDtoById" -> Optional.ofNullable(store.tasks.get((Long) args[0])).map(TaskDTO::fromEntity);
+                    case "findAllById" -> store.findAllById((Iterable<?>) args[0]);
+                    case "existsById" -> store.tasks.containsKey((Long) args[0]);
+                    case "findPage" -> store.findPage((TaskFilter) args[0], (TaskCursor) args[1], (Integer) args[2]);
+                    case "updateStatus" -> store.updateStatus((Long) args[0], (Short) args[1], (LocalDateTime) args[2]);
+                    case "deleteTaskById" -> store.tasks.remove((Long) args[0]) != null ? 1 : 0;
+                    case "count" -> (long) store.tasks.size();
+                    case "flush" -> null;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryTaskRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private Task save(Task task) {
+        if (task.getId() == null) {
+            task.setId(sequence.incrementAndGet());
+            task.setCreatedAt(LocalDateTime.now());
+        } else {
+            sequence.accumulateAndGet(task.getId(), Math::max);
+        }
+        task.setUpdatedAt(LocalDateTime.now());
+        tasks.put(task.getId(), task);
+        return task;
+    }
+
+    private List<Task> saveAll(Iterable<?> entities) {
+        List<Task> saved = new ArrayList<>();
+        entities.forEach(entity -> saved.add(save((Task) entity)));
+        return saved;
+    }
+
+    private List<Task> findAllById(Iterable<?> ids) {
+        List<Task> found = new ArrayList<>();
+        ids.forEach(id -> {
+            Task task = tasks.get((Long) id);
+            if (task != null) {
+                found.add(task);
+            }
+        });
+        return found;
+    }
+
+    private List<TaskDTO> findPage(TaskFilter filter, TaskCursor after, int limit) {
+        NavigableMap<Long, Task> remaining = after != null ? tasks.tailMap(after.getId(), false) : tasks;
+        List<TaskDTO> page = new ArrayList<>(limit);
+        for (Task task : remaining.values()) {
+            if (page.size() == limit) {
+                break;
+            }
+            if (matches(filter, task)) {
+                page.add(TaskDTO.fromEntity(task));
+            }
+        }
+        return page;
+    }
+
+    private Optional<Task> updateStatus(Long id, short status, LocalDateTime updatedAt) {
+        Task task = tasks.get(id);
+        if (task == null) {
+            return Optional.empty();
+        }
+        task.setStatus(Task.TaskStatus.fromCode(status));
+        task.setUpdatedAt(updatedAt);
+        task.setVersion(task.getVersion() == null ? 1 : task.getVersion() + 1);
+        return Optional.of(task);
+    }
+
+    private static boolean matches(TaskFilter filter, Task task) {
+        return (filter.getStatus() == null || filter.getStatus() == task.getStatus())
+                && (filter.getDueBefore() == null || task.getDueDate().isBefore(filter.getDueBefore()))
+                && (filter.getDueAfter() == null || !task.getDueDate().isBefore(filter.getDueAfter()));
+    }
+}
@@ -0,0 +1,61 @@
+package scot.oskar.hmcts.backend.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import scot.oskar.hmcts.backend.data.dto.TaskCreateDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskUpdateDTO;
+import scot.oskar.hmcts.backend.data.model.Task;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the conversions between entities and DTOs done on every request.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TaskMappingBenchmark {
+
+    private Task task;
+    private TaskCreateDTO createDTO;
+    private TaskUpdateDTO updateDTO;
+
+    @Setup
+    public void setUp() {
+        task = BenchmarkTasks.task(42);
+        createDTO = TaskCreateDTO.builder()
+                .title(task.getTitle())
+                .description(task.getDescription())
+                .status(task.getStatus())
+                .dueDate(task.getDueDate())
+                .build();
+        updateDTO = TaskUpdateDTO.builder()
+                .title("Updated title")
+                .description("Updated description")
+                .status(Task.TaskStatus.IN_PROGRESS)
+                .dueDate(task.getDueDate().plusDays(1))
+                .build();
+    }
+
+    @Benchmark
+    public TaskDTO entityToDto() {
+        return TaskDTO.fromEntity(task);
+    }
+
+    @Benchmark
+    public Task createDtoToEntity() {
+        return createDTO.toEntity();
+    }
+
+    @Benchmark
+    public Task updateDtoOntoEntity() {
+        updateDTO.updateEntity(task);
+        return task;
+    }
+}
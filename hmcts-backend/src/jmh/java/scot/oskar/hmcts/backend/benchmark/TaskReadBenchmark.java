@@ -0,0 +1,124 @@
+package scot.oskar.hmcts.backend.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import scot.oskar.hmcts.backend.HMCTSBackendApplication;
+import scot.oskar.hmcts.backend.data.dto.TaskDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskPageDTO;
+import scot.oskar.hmcts.backend.data.model.Task;
+import scot.oskar.hmcts.backend.data.query.TaskFilter;
+import scot.oskar.hmcts.backend.repository.TaskRepository;
+import scot.oskar.hmcts.backend.service.TaskService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads through Hibernate against PostgreSQL, comparing managed entities loaded in a read-write
+ * transaction with the read-only DTO projections the service uses. The gc profiler's
+ * gc.alloc.rate.norm shows the persistence context and snapshot overhead per read.
+ *
+ * <p>Starts PostgreSQL with Testcontainers, so Docker must be running.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskReadBenchmark {
+
+    @Param({"10000"})
+    private int size;
+
+    @Param({"200"})
+    private int pageSize;
+
+    private PostgreSQLContainer<?> postgres;
+    private ConfigurableApplicationContext context;
+    private TaskService taskService;
+    private TaskRepository taskRepository;
+    private TransactionTemplate transactionTemplate;
+    private EntityManager entityManager;
+    private long id;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        postgres = new PostgreSQLContainer<>("postgres:14.3");
+        postgres.start();
+
+        context = new SpringApplicationBuilder(HMCTSBackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "spring.datasource.username=" + postgres.getUsername(),
+                        "spring.datasource.password=" + postgres.getPassword(),
+                        "tasks.outbox.publisher=memory",
+                        "tasks.outbox.poll-interval=1h",
+                        "logging.level.root=WARN")
+                .run();
+
+        taskService = context.getBean(TaskService.class);
+        taskRepository = context.getBean(TaskRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+
+        context.getBean(JdbcTemplate.class).update("""
+                INSERT INTO tasks (title, description, status, due_date, created_at, updated_at)
+                SELECT 'Review case bundle ' || n,
+                       'Check the bundle for hearing ' || n || ' and confirm all exhibits are present',
+                       n % 4, TIMESTAMP '2025-01-01 09:00' + n * INTERVAL '1 minute', now(), now()
+                FROM generate_series(1, ?) AS n
+                """, size);
+        // A fresh database numbers the seeded tasks from 1
+        id = size / 2;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        postgres.stop();
+    }
+
+    // How reads were served before: entities managed and snapshotted, then flushed and dirty checked at commit
+    @Benchmark
+    public List<TaskDTO> pageAsManagedEntities() {
+        return transactionTemplate.execute(status -> entityManager
+                .createQuery("SELECT t FROM Task t ORDER BY t.dueDate, t.id", Task.class)
+                .setMaxResults(pageSize + 1)
+                .getResultList()
+                .stream()
+                .map(TaskDTO::fromEntity)
+                .toList());
+    }
+
+    @Benchmark
+    public TaskPageDTO pageAsProjection() {
+        return taskService.getTasks(TaskFilter.none(), null, pageSize);
+    }
+
+    @Benchmark
+    public TaskDTO byIdAsManagedEntity() {
+        return transactionTemplate.execute(status -> TaskDTO.fromEntity(taskRepository.findById(id).orElseThrow()));
+    }
+
+    // Bypasses the service, which would otherwise answer from its cache
+    @Benchmark
+    public TaskDTO byIdAsProjection() {
+        return taskRepository.findDtoById(id).orElseThrow();
+    }
+}
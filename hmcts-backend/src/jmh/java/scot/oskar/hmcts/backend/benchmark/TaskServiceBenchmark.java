@@ -0,0 +1,124 @@
+package scot.oskar.hmcts.backend.benchmark;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.context.ApplicationEventPublisher;
+import scot.oskar.hmcts.backend.data.dto.TaskCreateDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskPageDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskUpdateDTO;
+import scot.oskar.hmcts.backend.data.model.Task;
+import scot.oskar.hmcts.backend.data.query.TaskFilter;
+import scot.oskar.hmcts.backend.event.TaskChangedEvent;
+import scot.oskar.hmcts.backend.repository.TaskServiceImpl;
+import scot.oskar.hmcts.backend.service.PendingStatusChanges;
+import scot.oskar.hmcts.backend.service.TaskCache;
+import scot.oskar.hmcts.backend.service.TaskService;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TaskServiceImpl} operations against an in-memory repository, isolating the
+ * service, mapping and cache overhead from database latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TaskServiceBenchmark {
+
+    @Param({"10000"})
+    private int size;
+
+    private TaskService taskService;
+    private TaskCache taskCache;
+    private TaskCreateDTO createDTO;
+    private TaskUpdateDTO updateDTO;
+    private long hotId;
+    private long coldId;
+
+    @Setup
+    public void setUp() {
+        taskCache = new TaskCache(10_000, Duration.ofMinutes(10));
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        // Deliver change events straight to the cache, as the after-commit listener would
+        ApplicationEventPublisher publisher = event -> {
+            if (event instanceof TaskChangedEvent changed) {
+                taskCache.onTaskChanged(changed);
+            }
+        };
+
+        taskService = new TaskServiceImpl(
+                InMemoryTaskRepository.create(BenchmarkTasks.tasks(size)),
+                null, // exports stream from JDBC and are not benchmarked here
+                null, // search needs PostgreSQL and is not benchmarked here either
+                validator,
+                taskCache,
+                publisher,
+                null, // only the batch status change runs in a programmatic transaction
+                null, // statistics are aggregated in PostgreSQL
+                new PendingStatusChanges());
+
+        hotId = size / 2;
+        coldId = size;
+        taskService.getTaskById(hotId);
+
+        createDTO = TaskCreateDTO.builder()
+                .title("New task")
+                .status(Task.TaskStatus.PENDING)
+                .dueDate(BenchmarkTasks.BASE_TIME.plusYears(1))
+                .build();
+        updateDTO = TaskUpdateDTO.builder()
+                .title("Updated task")
+                .status(Task.TaskStatus.IN_PROGRESS)
+                .build();
+    }
+
+    @Benchmark
+    public TaskDTO getTaskByIdCached() {
+        return taskService.getTaskById(hotId);
+    }
+
+    @Benchmark
+    public TaskDTO getTaskByIdUncached() {
+        taskCache.evict(coldId);
+        return taskService.getTaskById(coldId);
+    }
+
+    @Benchmark
+    public TaskPageDTO getFirstPage() {
+        return taskService.getTasks(TaskFilter.none(), null, TaskService.DEFAULT_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public TaskPageDTO getFilteredPage() {
+        return taskService.getTasks(
+                TaskFilter.builder().status(Task.TaskStatus.IN_PROGRESS).build(), null, TaskService.DEFAULT_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public TaskDTO updateTask() {
+        return taskService.updateTask(hotId, updateDTO);
+    }
+
+    @Benchmark
+    public TaskDTO updateTaskStatus() {
+        return taskService.updateTaskStatus(hotId, Task.TaskStatus.COMPLETED);
+    }
+
+    // Paired with a delete so the store does not grow across iterations
+    @Benchmark
+    public TaskDTO createAndDeleteTask() {
+        TaskDTO created = taskService.createTask(createDTO);
+        taskService.deleteTask(created.getId());
+        return created;
+    }
+}
@@ -0,0 +1,154 @@
+package scot.oskar.hmcts.backend.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop load generator for the task API. Each client repeatedly reads a task by ID or
+ * a page of tasks, so the same run can be pointed at the default and the virtual thread
+ * profile and the printed throughput and latency compared.
+ *
+ * <p>Usage: {@code ./gradlew loadTest -PbaseUrl=http://localhost:8080 -Pclients=1000 -PdurationSeconds=30}
+ */
+public class TaskApiLoadTest {
+
+    private static final int SEED_TASKS = 1000;
+    private static final Pattern ID_PATTERN = Pattern.compile("\"task\":\\{\"id\":(\\d+)");
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 30);
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2))
+                .build();
+
+        long[] ids = seedTasks(httpClient, baseUrl);
+        System.out.printf("Seeded %d tasks, running %d clients for %ds against %s%n",
+                ids.length, clients, duration.toSeconds(), baseUrl);
+
+        AtomicLong errors = new AtomicLong();
+        List<long[]> latencies = new ArrayList<>(clients);
+        ExecutorService workers = Executors.newFixedThreadPool(clients);
+        CountDownLatch done = new CountDownLatch(clients);
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        for (int i = 0; i < clients; i++) {
+            LatencyRecorder recorder = new LatencyRecorder();
+            workers.execute(() -> {
+                try {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        String path = random.nextInt(10) < 8
+                                ? "/api/tasks/" + ids[random.nextInt(ids.length)]
+                                : "/api/tasks?limit=20";
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                                .timeout(Duration.ofSeconds(30))
+                                .GET()
+                                .build();
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception ex) {
+                            errors.incrementAndGet();
+                        }
+                        recorder.record(System.nanoTime() - start);
+                    }
+                } finally {
+                    synchronized (latencies) {
+                        latencies.add(recorder.toArray());
+                    }
+                    done.countDown();
+                }
+            });
+        }
+
+        done.await();
+        workers.shutdown();
+        report(latencies, errors.get(), duration);
+    }
+
+    private static long[] seedTasks(HttpClient httpClient, String baseUrl) throws Exception {
+        String dueDate = LocalDateTime.now().plusYears(1).format(DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss"));
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < SEED_TASKS; i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            body.append("{\"title\":\"Load test task ").append(i)
+                    .append("\",\"status\":\"PENDING\",\"dueDate\":\"").append(dueDate).append("\"}");
+        }
+        body.append(']');
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/tasks/batch"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+        String response = httpClient.send(request, HttpResponse.BodyHandlers.ofString()).body();
+
+        Matcher matcher = ID_PATTERN.matcher(response);
+        List<Long> ids = new ArrayList<>();
+        while (matcher.find()) {
+            ids.add(Long.parseLong(matcher.group(1)));
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("Could not seed tasks: " + response);
+        }
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static void report(List<long[]> perClient, long errors, Duration duration) {
+        long[] all = perClient.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        double seconds = duration.toMillis() / 1000.0;
+
+        System.out.printf("Requests:   %d (%d errors)%n", all.length, errors);
+        System.out.printf("Throughput: %.1f req/s%n", all.length / seconds);
+        System.out.printf("Latency:    p50 %.1f ms, p95 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                percentile(all, 0.50), percentile(all, 0.95), percentile(all, 0.99), percentile(all, 1.0));
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    private static final class LatencyRecorder {
+
+        private long[] samples = new long[1024];
+        private int size;
+
+        void record(long nanos) {
+            if (size == samples.length) {
+                samples = Arrays.copyOf(samples, size * 2);
+            }
+            samples[size++] = nanos;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(samples, size);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package scot.oskar.hmcts.backend.config;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds the requests of one endpoint class in flight at once.
+ *
+ * <p>A request that finds no free permit queues for up to the maximum queue time. Once a request has
+ * waited longer than the target queue time, the queue is not draining fast enough to be worth joining,
+ * so for the following shed interval requests that cannot start straight away are refused instead of
+ * queued. Sustained overload keeps renewing the interval, and shedding ends once waits fall back under
+ * the target.
+ */
+public class ConcurrencyLimiter {
+
+    private final int maxConcurrent;
+    private final Semaphore permits;
+    private final long maxQueueNanos;
+    private final long targetQueueNanos;
+    private final long shedIntervalNanos;
+    private volatile long shedUntil;
+
+    public ConcurrencyLimiter(int maxConcurrent, Duration maxQueueTime, Duration targetQueueTime, Duration shedInterval) {
+        this.maxConcurrent = maxConcurrent;
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxQueueNanos = maxQueueTime.toNanos();
+        this.targetQueueNanos = targetQueueTime.toNanos();
+        this.shedIntervalNanos = shedInterval.toNanos();
+        this.shedUntil = System.nanoTime();
+    }
+
+    /**
+     * Take a permit, queueing for it unless the limiter is shedding
+     *
+     * @return Whether a permit was taken; if so it must be handed back with {@link #release()}
+     */
+    public boolean tryAcquire() throws InterruptedException {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        long start = System.nanoTime();
+        if (start - shedUntil < 0) {
+            return false;
+        }
+        boolean acquired = permits.tryAcquire(maxQueueNanos, TimeUnit.NANOSECONDS);
+        long end = System.nanoTime();
+        if (end - start > targetQueueNanos) {
+            shedUntil = end + shedIntervalNanos;
+        }
+        return acquired;
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public int getInFlight() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public int getQueueLength() {
+        return permits.getQueueLength();
+    }
+
+    public boolean isShedding() {
+        return System.nanoTime() - shedUntil < 0;
+    }
+}
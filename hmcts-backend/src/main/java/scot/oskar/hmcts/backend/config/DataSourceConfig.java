@@ -0,0 +1,85 @@
+package scot.oskar.hmcts.backend.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+@Configuration
+public class DataSourceConfig {
+
+    // Enabled by the "virtual" profile, where request concurrency is no longer bounded by Tomcat threads
+    @Bean
+    @ConditionalOnProperty(name = "tasks.datasource.connection-limit.enabled", havingValue = "true")
+    static BeanPostProcessor connectionLimitingDataSourcePostProcessor(
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maxConnections,
+            @Value("${tasks.datasource.connection-limit.acquire-timeout:2s}") Duration acquireTimeout) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionLimitingDataSource)) {
+                    return new ConnectionLimitingDataSource(dataSource, maxConnections, acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "tasks.slow-query.enabled", havingValue = "true", matchIfMissing = true)
+    static BeanPostProcessor slowQueryLoggingDataSourcePostProcessor(
+            @Value("${tasks.slow-query.threshold:200ms}") Duration threshold) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof SlowQueryLoggingDataSource)) {
+                    return new SlowQueryLoggingDataSource(dataSource, threshold);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "tasks.datasource.replica.urls")
+    static ReplicaRoutingPostProcessor replicaRoutingDataSourcePostProcessor(ObjectProvider<ReplicaPools> replicaPools) {
+        return new ReplicaRoutingPostProcessor(replicaPools);
+    }
+
+    /**
+     * Fetches connections lazily, on the first statement, by which time a read-only transaction has marked
+     * the connection read-only and it can be taken from a replica. Runs before the other wrappers, so that
+     * they apply to replica connections too.
+     */
+    static final class ReplicaRoutingPostProcessor implements BeanPostProcessor, PriorityOrdered {
+
+        private final ObjectProvider<ReplicaPools> replicaPools;
+
+        ReplicaRoutingPostProcessor(ObjectProvider<ReplicaPools> replicaPools) {
+            this.replicaPools = replicaPools;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource primary && !(bean instanceof LazyConnectionDataSourceProxy)) {
+                LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(primary);
+                routing.setReadOnlyDataSource(new ReplicaRoutingDataSource(primary, replicaPools.getObject()));
+                return routing;
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
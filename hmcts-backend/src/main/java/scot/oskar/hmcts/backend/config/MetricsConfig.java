@@ -0,0 +1,46 @@
+package scot.oskar.hmcts.backend.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+@Configuration
+public class MetricsConfig {
+
+    // Backs @Timed on the service and export repository
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    // Hikari publishes its own pool gauges; this covers the semaphore used by the virtual thread profile
+    @Bean
+    public MeterBinder connectionLimitMetrics(DataSource dataSource) {
+        return registry -> {
+            ConnectionLimitingDataSource limited = unwrap(dataSource, ConnectionLimitingDataSource.class);
+            if (limited != null) {
+                Gauge.builder("tasks.datasource.permits.available", limited, ConnectionLimitingDataSource::getAvailablePermits)
+                        .description("Connection permits not currently in use")
+                        .register(registry);
+                Gauge.builder("tasks.datasource.permits.waiting", limited, ConnectionLimitingDataSource::getQueueLength)
+                        .description("Callers waiting for a connection permit")
+                        .register(registry);
+            }
+        };
+    }
+
+    // The limiter may sit beneath other wrappers such as the slow-query logger
+    private static <T> T unwrap(DataSource dataSource, Class<T> type) {
+        try {
+            return dataSource.isWrapperFor(type) ? dataSource.unwrap(type) : null;
+        } catch (SQLException ex) {
+            return null;
+        }
+    }
+}
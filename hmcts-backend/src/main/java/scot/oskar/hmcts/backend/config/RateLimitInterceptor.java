@@ -0,0 +1,197 @@
+package scot.oskar.hmcts.backend.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import scot.oskar.hmcts.backend.exception.TooManyRequestsException;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rate and concurrency limits for the task API, applied before a request reaches its controller.
+ *
+ * <p>Each client gets a token bucket per endpoint class, keyed by the client header when it holds one
+ * of the configured API keys, or else the remote address. Unknown keys are ignored, so rotating the
+ * header cannot buy a fresh bucket or flood the bucket cache. Each endpoint class also has its own {@link ConcurrencyLimiter}, so reads
+ * can never take the capacity set aside for writes, and long-running exports are held to a few at a
+ * time. The change stream is only rate limited, as it bounds its own subscribers.
+ *
+ * <p>Rejections are thrown as {@link TooManyRequestsException}, which the exception handler turns into
+ * a 429 with Retry-After.
+ */
+@Component
+@ConditionalOnProperty(name = "tasks.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitInterceptor implements AsyncHandlerInterceptor, MeterBinder {
+
+    private static final String PERMIT_ATTRIBUTE = RateLimitInterceptor.class.getName() + ".permit";
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+    private static final Duration BUSY_RETRY_AFTER = Duration.ofSeconds(1);
+
+    // Defaults, each overridable under tasks.rate-limit.<class>
+    enum EndpointClass {
+        READ(50, 100, 32),
+        EXPORT(1, 5, 2),
+        // Shares the read rate, and bounds its own subscribers instead of having a concurrency limit here
+        STREAM(0, 0, 0),
+        WRITE(20, 40, 16);
+
+        private final double requestsPerSecond;
+        private final int burst;
+        private final int maxConcurrent;
+
+        EndpointClass(double requestsPerSecond, int burst, int maxConcurrent) {
+            this.requestsPerSecond = requestsPerSecond;
+            this.burst = burst;
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        static EndpointClass of(HttpServletRequest request) {
+            if (!SAFE_METHODS.contains(request.getMethod())) {
+                return WRITE;
+            }
+            String path = request.getRequestURI();
+            if (path.endsWith("/export")) {
+                return EXPORT;
+            }
+            if (path.endsWith("/stream")) {
+                return STREAM;
+            }
+            return READ;
+        }
+
+        String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private record Rate(double tokensPerSecond, int burst) {
+    }
+
+    private final String clientHeader;
+    private final Set<String> apiKeys;
+    private final Map<EndpointClass, Rate> rates = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, ConcurrencyLimiter> limiters = new EnumMap<>(EndpointClass.class);
+    private final Cache<String, TokenBucket> buckets;
+
+    private MeterRegistry meterRegistry;
+
+    public RateLimitInterceptor(
+            Environment environment,
+            @Value("${tasks.rate-limit.client-header:X-API-Key}") String clientHeader,
+            @Value("${tasks.rate-limit.api-keys:}") Set<String> apiKeys,
+            @Value("${tasks.rate-limit.max-queue-time:500ms}") Duration maxQueueTime,
+            @Value("${tasks.rate-limit.target-queue-time:50ms}") Duration targetQueueTime,
+            @Value("${tasks.rate-limit.shed-interval:1s}") Duration shedInterval,
+            @Value("${tasks.rate-limit.max-clients:100000}") long maxClients,
+            @Value("${tasks.rate-limit.idle-expiry:10m}") Duration idleExpiry) {
+        this.clientHeader = clientHeader;
+        this.apiKeys = Set.copyOf(apiKeys);
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            if (endpointClass == EndpointClass.STREAM) {
+                continue;
+            }
+            String prefix = "tasks.rate-limit." + endpointClass.tag();
+            rates.put(endpointClass, new Rate(
+                    environment.getProperty(prefix + ".requests-per-second", Double.class, endpointClass.requestsPerSecond),
+                    environment.getProperty(prefix + ".burst", Integer.class, endpointClass.burst)));
+            limiters.put(endpointClass, new ConcurrencyLimiter(
+                    environment.getProperty(prefix + ".max-concurrent", Integer.class, endpointClass.maxConcurrent),
+                    maxQueueTime, targetQueueTime, shedInterval));
+        }
+        rates.put(EndpointClass.STREAM, rates.get(EndpointClass.READ));
+        // Idle clients are dropped; a client that comes back starts with a full bucket
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(idleExpiry)
+                .build();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws InterruptedException {
+        // An async dispatch resumes a request that was admitted on its first dispatch, and CORS
+        // preflights never reach a controller
+        if (request.getDispatcherType() == DispatcherType.ASYNC || CorsUtils.isPreFlightRequest(request)) {
+            return true;
+        }
+
+        EndpointClass endpointClass = EndpointClass.of(request);
+        Rate rate = rates.get(endpointClass);
+        TokenBucket bucket = buckets.get(endpointClass.tag() + ":" + clientOf(request),
+                key -> new TokenBucket(rate.tokensPerSecond(), rate.burst(), System.nanoTime()));
+        long waitNanos = bucket.tryConsume(System.nanoTime());
+        if (waitNanos > 0) {
+            countRejection(endpointClass, "rate");
+            throw new TooManyRequestsException("Rate limit exceeded, retry later", Duration.ofNanos(waitNanos));
+        }
+
+        ConcurrencyLimiter limiter = limiters.get(endpointClass);
+        if (limiter != null) {
+            if (!limiter.tryAcquire()) {
+                countRejection(endpointClass, limiter.isShedding() ? "shed" : "concurrency");
+                throw new TooManyRequestsException("Server is busy, retry later", BUSY_RETRY_AFTER);
+            }
+            // Held across async processing, so exports count until their stream completes
+            request.setAttribute(PERMIT_ATTRIBUTE, limiter);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof ConcurrencyLimiter limiter) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            limiter.release();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        limiters.forEach((endpointClass, limiter) -> {
+            Gauge.builder("tasks.requests.in.flight", limiter, ConcurrencyLimiter::getInFlight)
+                    .description("Admitted requests still being handled")
+                    .tag("class", endpointClass.tag())
+                    .register(registry);
+            Gauge.builder("tasks.requests.queued", limiter, ConcurrencyLimiter::getQueueLength)
+                    .description("Requests waiting for a concurrency permit")
+                    .tag("class", endpointClass.tag())
+                    .register(registry);
+        });
+        this.meterRegistry = registry;
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        String apiKey = request.getHeader(clientHeader);
+        return StringUtils.hasText(apiKey) && apiKeys.contains(apiKey)
+                ? "key:" + apiKey
+                : "addr:" + request.getRemoteAddr();
+    }
+
+    private void countRejection(EndpointClass endpointClass, String reason) {
+        if (meterRegistry != null) {
+            Counter.builder("tasks.requests.rejected")
+                    .description("Requests refused with 429 by the rate or concurrency limits")
+                    .tag("class", endpointClass.tag())
+                    .tag("reason", reason)
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+}
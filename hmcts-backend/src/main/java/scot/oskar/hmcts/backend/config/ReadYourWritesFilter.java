@@ -0,0 +1,65 @@
+package scot.oskar.hmcts.backend.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Reads a client's own writes back from the primary. Every write request sets a short-lived
+ * cookie, and requests carrying it are pinned to the primary until it expires, which covers
+ * the window in which a replica may not have replayed the write yet.
+ */
+@Component
+@ConditionalOnProperty(name = "tasks.datasource.replica.urls")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE_NAME = "tasks-read-primary";
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    private final Duration stickyWindow;
+
+    public ReadYourWritesFilter(@Value("${tasks.datasource.replica.sticky-window:5s}") Duration stickyWindow) {
+        this.stickyWindow = stickyWindow;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean write = !SAFE_METHODS.contains(request.getMethod());
+        if (write) {
+            // Set up front, as the body may already be committed by the time the chain returns
+            ResponseCookie cookie = ResponseCookie.from(COOKIE_NAME, "1")
+                    .maxAge(stickyWindow)
+                    .path("/")
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .build();
+            response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+        }
+
+        boolean pinned = write || WebUtils.getCookie(request, COOKIE_NAME) != null;
+        if (pinned) {
+            ReplicaRoutingDataSource.requirePrimary();
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (pinned) {
+                ReplicaRoutingDataSource.clearPrimaryRequired();
+            }
+        }
+    }
+}
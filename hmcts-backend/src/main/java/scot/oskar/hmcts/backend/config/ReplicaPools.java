@@ -0,0 +1,183 @@
+package scot.oskar.hmcts.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connection pools for the read replicas, with a periodic check of each replica's health and lag.
+ *
+ * <p>Connections are handed out round-robin from replicas that answered the last check and were
+ * no further behind the primary than the configured lag. A replica that fails to hand out a
+ * connection is taken out of rotation until the next successful check. When no replica is
+ * usable, the primary serves the read instead.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "tasks.datasource.replica.urls")
+public class ReplicaPools implements MeterBinder {
+
+    // A replica that has replayed everything it received is current, however long ago the last write was
+    private static final String LAG_SQL = "SELECT CASE WHEN NOT pg_is_in_recovery() "
+            + "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagMillis;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private Counter fallbackCounter;
+
+    @Autowired
+    public ReplicaPools(
+            @Value("${tasks.datasource.replica.urls}") List<String> urls,
+            @Value("${tasks.datasource.replica.username:${spring.datasource.username}}") String username,
+            @Value("${tasks.datasource.replica.password:${spring.datasource.password}}") String password,
+            @Value("${tasks.datasource.replica.pool-size:10}") int poolSize,
+            @Value("${tasks.datasource.replica.connection-timeout:1s}") Duration connectionTimeout,
+            @Value("${tasks.datasource.replica.max-lag:5s}") Duration maxLag) {
+        this(createPools(urls, username, password, poolSize, connectionTimeout), maxLag);
+    }
+
+    public ReplicaPools(Map<String, DataSource> replicas, Duration maxLag) {
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+        this.maxLagMillis = maxLag.toMillis();
+    }
+
+    /**
+     * Take a connection from the next usable replica
+     *
+     * @param primary Where to read from when no replica is usable
+     * @return Replica connection, or a primary connection as a fallback
+     */
+    public Connection getConnection(DataSource primary) throws SQLException {
+        int start = next.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException ex) {
+                replica.healthy = false;
+                log.warn("Replica {} failed to hand out a connection, reading from the primary until it recovers",
+                        replica.name, ex);
+            }
+        }
+        if (fallbackCounter != null) {
+            fallbackCounter.increment();
+        }
+        return primary.getConnection();
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${tasks.datasource.replica.health-check-interval:2s}")
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            boolean wasHealthy = replica.healthy;
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(LAG_SQL)) {
+                rs.next();
+                replica.lagMillis = (long) (rs.getDouble(1) * 1000);
+                replica.healthy = replica.lagMillis <= maxLagMillis;
+                if (wasHealthy && !replica.healthy) {
+                    log.warn("Replica {} is {}ms behind the primary, reading from elsewhere", replica.name, replica.lagMillis);
+                }
+            } catch (SQLException | RuntimeException ex) {
+                replica.healthy = false;
+                if (wasHealthy) {
+                    log.warn("Replica {} failed its health check", replica.name, ex);
+                }
+            }
+            if (!wasHealthy && replica.healthy) {
+                log.info("Replica {} is back in rotation", replica.name);
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Replica replica : replicas) {
+            Gauge.builder("tasks.datasource.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .description("Whether the replica is serving reads")
+                    .tag("replica", replica.name)
+                    .register(registry);
+            Gauge.builder("tasks.datasource.replica.lag", replica, r -> r.lagMillis / 1000.0)
+                    .description("Replication lag measured by the last health check")
+                    .baseUnit("seconds")
+                    .tag("replica", replica.name)
+                    .register(registry);
+        }
+        fallbackCounter = Counter.builder("tasks.datasource.replica.fallbacks")
+                .description("Read-only connections taken from the primary because no replica was usable")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void close() {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception ex) {
+                    log.warn("Could not close the pool for replica {}", replica.name, ex);
+                }
+            }
+        }
+    }
+
+    private static Map<String, DataSource> createPools(List<String> urls, String username, String password,
+                                                       int poolSize, Duration connectionTimeout) {
+        Map<String, DataSource> pools = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("replica-" + (i + 1));
+            pool.setJdbcUrl(urls.get(i).trim());
+            pool.setUsername(username);
+            pool.setPassword(password);
+            pool.setMaximumPoolSize(poolSize);
+            // Fail over to the primary quickly instead of queueing behind an unreachable replica
+            pool.setConnectionTimeout(connectionTimeout.toMillis());
+            pool.setReadOnly(true);
+            pools.put(pool.getPoolName(), pool);
+        }
+        return pools;
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+        private volatile long lagMillis;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package scot.oskar.hmcts.backend.config;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Read-only side of the datasource: connections come from the replicas unless the current
+ * thread has been pinned to the primary, for example after the client's own write.
+ * Installed as the read-only target of a {@code LazyConnectionDataSourceProxy}, see {@link DataSourceConfig}.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final ReplicaPools replicas;
+
+    public ReplicaRoutingDataSource(DataSource primary, ReplicaPools replicas) {
+        this.primary = primary;
+        this.replicas = replicas;
+    }
+
+    /**
+     * Send read-only transactions on this thread to the primary until {@link #clearPrimaryRequired()}
+     */
+    public static void requirePrimary() {
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+    }
+
+    public static void clearPrimaryRequired() {
+        PRIMARY_REQUIRED.remove();
+    }
+
+    public static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get() != null;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return isPrimaryRequired() ? primary.getConnection() : replicas.getConnection(primary);
+    }
+
+    // Replica pools have their own credentials, so explicit ones can only apply to the primary
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+}
@@ -0,0 +1,10 @@
+package scot.oskar.hmcts.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Background jobs such as the outbox relay. The pool is sized in application.properties
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,33 @@
+package scot.oskar.hmcts.backend.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records the TaskService method being executed in the MDC, so log entries written
+ * further down the call (such as slow queries) can be attributed to it.
+ */
+@Aspect
+@Component
+public class ServiceMethodMdcAspect {
+
+    public static final String MDC_KEY = "serviceMethod";
+
+    @Around("execution(* scot.oskar.hmcts.backend.service.TaskService.*(..))")
+    public Object recordServiceMethod(ProceedingJoinPoint joinPoint) throws Throwable {
+        String previous = MDC.get(MDC_KEY);
+        MDC.put(MDC_KEY, "TaskService." + joinPoint.getSignature().getName());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            if (previous != null) {
+                MDC.put(MDC_KEY, previous);
+            } else {
+                MDC.remove(MDC_KEY);
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package scot.oskar.hmcts.backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Times every statement executed through the wrapped data source and logs those slower
+ * than a threshold, with the row count. Queries are timed until their result set is
+ * closed, so fetching the rows counts towards the duration.
+ *
+ * <p>Entries go to the {@code tasks.slow-query} logger, which logback-spring.xml routes
+ * asynchronously to a JSON file; the calling service method is carried in the MDC by
+ * {@link ServiceMethodMdcAspect}.
+ */
+public class SlowQueryLoggingDataSource extends DelegatingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger("tasks.slow-query");
+
+    private final long thresholdNanos;
+
+    public SlowQueryLoggingDataSource(DataSource targetDataSource, Duration threshold) {
+        super(targetDataSource);
+        this.thresholdNanos = threshold.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrapConnection(super.getConnection(username, password));
+    }
+
+    protected void onSlowQuery(String sql, long durationNanos, long rows) {
+        log.atWarn()
+                .addKeyValue("durationMs", TimeUnit.NANOSECONDS.toMillis(durationNanos))
+                .addKeyValue("rows", rows)
+                .addKeyValue("sql", sql)
+                .log("Slow query");
+    }
+
+    private void report(String sql, long startNanos, long rows) {
+        long duration = System.nanoTime() - startNanos;
+        if (duration >= thresholdNanos) {
+            onSlowQuery(sql, duration, rows);
+        }
+    }
+
+    private Connection wrapConnection(Connection connection) {
+        return proxy(Connection.class, connection, (method, args) -> {
+            Object result = invoke(connection, method, args);
+            if (result instanceof Statement statement) {
+                // prepareStatement and prepareCall take the SQL up front, createStatement passes it to execute
+                String sql = method.getName().startsWith("prepare") ? (String) args[0] : null;
+                return wrapStatement(method.getReturnType(), statement, sql);
+            }
+            return result;
+        });
+    }
+
+    private Object wrapStatement(Class<?> type, Statement statement, String preparedSql) {
+        return proxy(type, statement, (method, args) -> {
+            if (!method.getName().startsWith("execute")) {
+                return invoke(statement, method, args);
+            }
+
+            String sql = preparedSql != null ? preparedSql
+                    : args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+            long start = System.nanoTime();
+            Object result = invoke(statement, method, args);
+
+            if (result instanceof ResultSet resultSet) {
+                return wrapResultSet(resultSet, sql, start);
+            }
+            report(sql, start, rowCount(statement, result));
+            return result;
+        });
+    }
+
+    private ResultSet wrapResultSet(ResultSet resultSet, String sql, long start) {
+        long[] rows = {0};
+        AtomicBoolean reported = new AtomicBoolean();
+        return proxy(ResultSet.class, resultSet, (method, args) -> {
+            Object result = invoke(resultSet, method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                rows[0]++;
+            } else if (method.getName().equals("close") && reported.compareAndSet(false, true)) {
+                report(sql, start, rows[0]);
+            }
+            return result;
+        });
+    }
+
+    private static long rowCount(Statement statement, Object result) throws SQLException {
+        if (result instanceof Number count) {
+            return count.longValue();
+        }
+        if (result instanceof int[] counts) {
+            return Arrays.stream(counts).filter(count -> count > 0).sum();
+        }
+        if (result instanceof long[] counts) {
+            return Arrays.stream(counts).filter(count -> count > 0).sum();
+        }
+        // execute() returned false, so the outcome is an update count
+        return Boolean.FALSE.equals(result) ? statement.getUpdateCount() : -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.handle(method, args));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getTargetException();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(Method method, Object[] args) throws Throwable;
+    }
+}
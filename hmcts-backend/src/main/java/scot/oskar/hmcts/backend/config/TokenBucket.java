@@ -0,0 +1,44 @@
+package scot.oskar.hmcts.backend.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, held as a single timestamp in the style of the generic cell rate algorithm.
+ *
+ * <p>The timestamp is when the bucket would be full again. Each request moves it one token's worth of
+ * time further ahead, and a request is refused when that would put it more than a full bucket ahead
+ * of now. A compare-and-set on the timestamp replaces the lock a counter and refill time would need.
+ */
+public class TokenBucket {
+
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final AtomicLong fullAt;
+
+    public TokenBucket(double tokensPerSecond, int capacity, long nowNanos) {
+        this.intervalNanos = (long) (1_000_000_000L / tokensPerSecond);
+        this.capacityNanos = intervalNanos * capacity;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Take a token if one is available
+     *
+     * @param nowNanos Current {@link System#nanoTime()}
+     * @return Zero if a token was taken, otherwise nanoseconds until the next one is available
+     */
+    public long tryConsume(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            // Compare by difference, as nanoTime may wrap
+            long next = (current - nowNanos < 0 ? nowNanos : current) + intervalNanos;
+            long wait = next - nowNanos - capacityNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -1,6 +1,12 @@
 package scot.oskar.hmcts.backend.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -8,16 +14,43 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import scot.oskar.hmcts.backend.data.dto.TaskBatchResultDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskBatchUpdateDTO;
 import scot.oskar.hmcts.backend.data.dto.TaskCreateDTO;
 import scot.oskar.hmcts.backend.data.dto.TaskDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskPageDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskSearchPageDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskStatsDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskStatusChangeDTO;
 import scot.oskar.hmcts.backend.data.dto.TaskUpdateDTO;
 import scot.oskar.hmcts.backend.data.model.Task;
+import scot.oskar.hmcts.backend.data.query.TaskFilter;
 import scot.oskar.hmcts.backend.exception.ApiError;
+import scot.oskar.hmcts.backend.service.IdempotencyStore;
+import scot.oskar.hmcts.backend.service.StatusWriteBehind;
+import scot.oskar.hmcts.backend.service.TaskChangeFeed;
+import scot.oskar.hmcts.backend.service.TaskETags;
 import scot.oskar.hmcts.backend.service.TaskService;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/tasks")
@@ -25,19 +58,97 @@ import java.util.List;
 @Tag(name = "Task Management API", description = "API for managing caseworker tasks")
 public class TaskController {
 
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType APPLICATION_CBOR_SEQ = MediaType.parseMediaType("application/cbor-seq");
+
+    // Configured like the mapper behind Spring MVC's CBOR converter, so exported tasks match the list endpoint
+    private static final ObjectMapper CBOR_MAPPER = Jackson2ObjectMapperBuilder.cbor().build();
+
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+    private static final String PREFER = "Prefer";
+    private static final String PREFERENCE_APPLIED = "Preference-Applied";
+    private static final String RESPOND_ASYNC = "respond-async";
+    private static final TypeReference<TaskDTO> TASK_TYPE = new TypeReference<>() {
+    };
+    private static final TypeReference<List<TaskBatchResultDTO>> BATCH_RESULT_TYPE = new TypeReference<>() {
+    };
+
+    // Flush periodically so clients receive rows while the query is still running
+    private static final int EXPORT_FLUSH_INTERVAL = 100;
+
     private final TaskService taskService;
+    private final TaskChangeFeed taskChangeFeed;
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectProvider<StatusWriteBehind> statusWriteBehind;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    @Operation(summary = "Create a new task", description = "Creates a new task with the provided details")
+    @Operation(summary = "Create a new task",
+            description = "Creates a new task with the provided details. A request repeated with the same Idempotency-Key "
+                    + "returns the original response instead of creating another task")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Task created successfully",
                     content = @Content(schema = @Schema(implementation = TaskDTO.class))),
             @ApiResponse(responseCode = "400", description = "Invalid input",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key already used for a different request",
+                    content = @Content(schema = @Schema(implementation = ApiError.class)))
+    })
+    public ResponseEntity<TaskDTO> createTask(
+            @Valid @RequestBody TaskCreateDTO taskCreateDTO,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        IdempotencyStore.Outcome<TaskDTO> outcome = idempotencyStore.execute(
+                idempotencyKey, "create-task", taskCreateDTO, TASK_TYPE,
+                () -> taskService.createTask(taskCreateDTO));
+        return respond(HttpStatus.CREATED, outcome);
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Create tasks in bulk",
+            description = "Creates up to 1000 tasks in one transaction and reports a result for each item. "
+                    + "A request repeated with the same Idempotency-Key returns the original results")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed, see the status of each item",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = TaskBatchResultDTO.class)))),
+            @ApiResponse(responseCode = "400", description = "Empty or oversized batch",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key already used for a different request",
+                    content = @Content(schema = @Schema(implementation = ApiError.class)))
+    })
+    public ResponseEntity<List<TaskBatchResultDTO>> createTasks(
+            @RequestBody List<TaskCreateDTO> tasks,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        IdempotencyStore.Outcome<List<TaskBatchResultDTO>> outcome = idempotencyStore.execute(
+                idempotencyKey, "create-tasks", tasks, BATCH_RESULT_TYPE,
+                () -> taskService.createTasks(tasks));
+        return respond(HttpStatus.OK, outcome);
+    }
+
+    @PutMapping("/batch")
+    @Operation(summary = "Update tasks in bulk",
+            description = "Updates up to 1000 tasks in one transaction and reports a result for each item")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed, see the status of each item",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = TaskBatchResultDTO.class)))),
+            @ApiResponse(responseCode = "400", description = "Empty or oversized batch",
+                    content = @Content(schema = @Schema(implementation = ApiError.class)))
+    })
+    public List<TaskBatchResultDTO> updateTasks(@RequestBody List<TaskBatchUpdateDTO> tasks) {
+        return taskService.updateTasks(tasks);
+    }
+
+    @PatchMapping("/batch/status")
+    @Operation(summary = "Update task statuses in bulk",
+            description = "Changes the status of up to 1000 tasks in one transaction and reports a result for each item")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed, see the status of each item",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = TaskBatchResultDTO.class)))),
+            @ApiResponse(responseCode = "400", description = "Empty or oversized batch",
                     content = @Content(schema = @Schema(implementation = ApiError.class)))
     })
-    public TaskDTO createTask(@Valid @RequestBody TaskCreateDTO taskCreateDTO) {
-        return taskService.createTask(taskCreateDTO);
+    public List<TaskBatchResultDTO> updateTaskStatuses(@RequestBody List<TaskStatusChangeDTO> changes) {
+        return taskService.updateTaskStatuses(changes);
     }
 
     @GetMapping("/{id}")
@@ -45,19 +156,165 @@ public class TaskController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Task found",
                     content = @Content(schema = @Schema(implementation = TaskDTO.class))),
+            @ApiResponse(responseCode = "304", description = "Task unchanged since the ETag or date given"),
             @ApiResponse(responseCode = "404", description = "Task not found",
                     content = @Content(schema = @Schema(implementation = ApiError.class)))
     })
-    public TaskDTO getTaskById(@PathVariable Long id) {
-        return taskService.getTaskById(id);
+    public ResponseEntity<TaskDTO> getTaskById(@PathVariable Long id, WebRequest request) {
+        // Revalidation only needs the modification time, so the task is neither loaded nor mapped
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null) {
+            LocalDateTime lastModified = taskService.getTaskLastModified(id);
+            if (request.checkNotModified(TaskETags.of(id, lastModified), toEpochMilli(lastModified))) {
+                return null;
+            }
+        }
+        return withEntityTag(taskService.getTaskById(id));
     }
 
     @GetMapping
-    @Operation(summary = "Get all tasks", description = "Returns a list of all tasks")
-    @ApiResponse(responseCode = "200", description = "List of tasks",
-            content = @Content(schema = @Schema(implementation = TaskDTO.class)))
-    public List<TaskDTO> getAllTasks() {
-        return taskService.getAllTasks();
+    @Operation(summary = "List tasks",
+            description = "Returns a page of tasks ordered by due date. Pass nextCursor back as cursor to fetch the following page. "
+                    + "Archived tasks are only included when includeArchived is true")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page of tasks, as JSON unless CBOR or Smile is requested",
+                    content = {
+                            @Content(mediaType = "application/json", schema = @Schema(implementation = TaskPageDTO.class)),
+                            @Content(mediaType = "application/cbor", schema = @Schema(implementation = TaskPageDTO.class)),
+                            @Content(mediaType = "application/x-jackson-smile", schema = @Schema(implementation = TaskPageDTO.class))
+                    }),
+            @ApiResponse(responseCode = "304", description = "Page unchanged since the ETag given"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or page size",
+                    content = @Content(schema = @Schema(implementation = ApiError.class)))
+    })
+    public ResponseEntity<TaskPageDTO> getTasks(
+            @RequestParam(required = false) Task.TaskStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dueBefore,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dueAfter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            WebRequest request) {
+        TaskFilter filter = TaskFilter.builder()
+                .status(status)
+                .dueBefore(dueBefore)
+                .dueAfter(dueAfter)
+                .includeArchived(includeArchived)
+                .build();
+
+        // The tag is derived from the page itself, so revalidation costs one page query, not a pass over every match
+        TaskPageDTO page = taskService.getTasks(filter, cursor, limit);
+        String etag = TaskETags.of(page);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT);
+        page.getItems().stream()
+                .map(TaskDTO::getUpdatedAt)
+                .filter(Objects::nonNull)
+                .max(Comparator.naturalOrder())
+                .ifPresent(lastModified -> response.lastModified(toEpochMilli(lastModified)));
+        return response.body(page);
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search tasks",
+            description = "Full-text search over titles and descriptions, most relevant first. Supports quoted phrases, "
+                    + "OR and -exclusions. Pass nextOffset back as offset to fetch the following page")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page of results",
+                    content = @Content(schema = @Schema(implementation = TaskSearchPageDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Missing query, or invalid offset or page size",
+                    content = @Content(schema = @Schema(implementation = ApiError.class)))
+    })
+    public TaskSearchPageDTO searchTasks(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Integer offset,
+            @RequestParam(required = false) Integer limit) {
+        return taskService.searchTasks(q, offset, limit);
+    }
+
+    @GetMapping("/stats")
+    @Operation(summary = "Get task statistics",
+            description = "Counts by status, overdue counts by status and open tasks due on each of the next seven days. "
+                    + "Served from a cache, so the figures may be a few seconds old")
+    @ApiResponse(responseCode = "200", description = "Task statistics",
+            content = @Content(schema = @Schema(implementation = TaskStatsDTO.class)))
+    public TaskStatsDTO getTaskStats() {
+        return taskService.getTaskStats();
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Export tasks",
+            description = "Streams every matching task as newline-delimited JSON, one task per line, "
+                    + "or as a CBOR sequence when application/cbor-seq is preferred")
+    @ApiResponse(responseCode = "200", description = "Stream of tasks",
+            content = {
+                    @Content(mediaType = "application/x-ndjson", schema = @Schema(implementation = TaskDTO.class)),
+                    @Content(mediaType = "application/cbor-seq", schema = @Schema(implementation = TaskDTO.class))
+            })
+    public ResponseEntity<StreamingResponseBody> exportTasks(
+            @RequestParam(required = false) Task.TaskStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dueBefore,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dueAfter,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        TaskFilter filter = TaskFilter.builder()
+                .status(status)
+                .dueBefore(dueBefore)
+                .dueAfter(dueAfter)
+                .includeArchived(includeArchived)
+                .build();
+
+        // JSON root values are separated by newlines, CBOR items simply follow one another (RFC 8742).
+        // Per-value flushing is left to the loop below
+        boolean cbor = prefersCborSequence(accept);
+        ObjectWriter writer = (cbor
+                ? CBOR_MAPPER.writerFor(TaskDTO.class)
+                : objectMapper.writerFor(TaskDTO.class).withRootValueSeparator("\n"))
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = writer.createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                int[] written = {0};
+                taskService.exportTasks(filter, task -> {
+                    try {
+                        writer.writeValue(generator, task);
+                        if (++written[0] % EXPORT_FLUSH_INTERVAL == 1) {
+                            generator.flush();
+                        }
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+                if (written[0] > 0 && !cbor) {
+                    generator.writeRaw('\n');
+                }
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(cbor ? APPLICATION_CBOR_SEQ : APPLICATION_NDJSON)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(body);
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream task changes",
+            description = "Pushes created, updated, status_changed, overdue and deleted events as Server-Sent Events. "
+                    + "Reconnect with Last-Event-ID to resume; a resync event means the client should reload its tasks")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Event stream",
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)),
+            @ApiResponse(responseCode = "503", description = "Too many open streams")
+    })
+    public SseEmitter streamTaskChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return taskChangeFeed.subscribe(lastEventId);
     }
 
     @PutMapping("/{id}")
@@ -68,26 +325,47 @@ public class TaskController {
             @ApiResponse(responseCode = "400", description = "Invalid input",
                     content = @Content(schema = @Schema(implementation = ApiError.class))),
             @ApiResponse(responseCode = "404", description = "Task not found",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "412", description = "Task changed since the ETag given in If-Match",
                     content = @Content(schema = @Schema(implementation = ApiError.class)))
     })
-    public TaskDTO updateTask(@PathVariable Long id, @Valid @RequestBody TaskUpdateDTO taskUpdateDTO) {
-        return taskService.updateTask(id, taskUpdateDTO);
+    public ResponseEntity<TaskDTO> updateTask(
+            @PathVariable Long id,
+            @Valid @RequestBody TaskUpdateDTO taskUpdateDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return withEntityTag(taskService.updateTask(id, taskUpdateDTO, ifMatch));
     }
 
     @PatchMapping("/{id}/status")
-    @Operation(summary = "Update task status", description = "Updates the status of a task")
+    @Operation(summary = "Update task status",
+            description = "Updates the status of a task. With Prefer: respond-async, and write-behind enabled, the change "
+                    + "is accepted once logged and written to the database in the background")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Task status updated successfully",
                     content = @Content(schema = @Schema(implementation = TaskDTO.class))),
+            @ApiResponse(responseCode = "202", description = "Status change accepted, the task as it will be once written",
+                    content = @Content(schema = @Schema(implementation = TaskDTO.class))),
             @ApiResponse(responseCode = "400", description = "Invalid status",
                     content = @Content(schema = @Schema(implementation = ApiError.class))),
             @ApiResponse(responseCode = "404", description = "Task not found",
                     content = @Content(schema = @Schema(implementation = ApiError.class)))
     })
-    public TaskDTO updateTaskStatus(
+    public ResponseEntity<TaskDTO> updateTaskStatus(
             @PathVariable Long id,
-            @RequestParam Task.TaskStatus status) {
-        return taskService.updateTaskStatus(id, status);
+            @RequestParam Task.TaskStatus status,
+            @RequestHeader(value = PREFER, required = false) String prefer) {
+        StatusWriteBehind writeBehind = prefersAsync(prefer) ? statusWriteBehind.getIfAvailable() : null;
+        // Made synchronously when write-behind is off or its buffer is full
+        Optional<TaskDTO> accepted = writeBehind != null ? writeBehind.submit(id, status) : Optional.empty();
+        if (accepted.isPresent()) {
+            TaskDTO task = accepted.get();
+            return ResponseEntity.accepted()
+                    .header(PREFERENCE_APPLIED, RESPOND_ASYNC)
+                    .eTag(TaskETags.of(task))
+                    .lastModified(toEpochMilli(task.getUpdatedAt()))
+                    .body(task);
+        }
+        return withEntityTag(taskService.updateTaskStatus(id, status));
     }
 
     @DeleteMapping("/{id}")
@@ -101,4 +379,62 @@ public class TaskController {
     public void deleteTask(@PathVariable Long id) {
         taskService.deleteTask(id);
     }
-}
\ No newline at end of file
+
+    private static ResponseEntity<TaskDTO> withEntityTag(TaskDTO task) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(TaskETags.of(task));
+        if (task.getUpdatedAt() != null) {
+            response.lastModified(toEpochMilli(task.getUpdatedAt()));
+        }
+        return response.body(task);
+    }
+
+    // Flags a stored response sent again for a repeated Idempotency-Key
+    private static <T> ResponseEntity<T> respond(HttpStatus status, IdempotencyStore.Outcome<T> outcome) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status);
+        if (outcome.replayed()) {
+            response.header(IDEMPOTENT_REPLAYED, "true");
+        }
+        return response.body(outcome.response());
+    }
+
+    // Prefer holds comma-separated preferences, each possibly followed by parameters (RFC 7240)
+    private static boolean prefersAsync(String prefer) {
+        if (prefer == null) {
+            return false;
+        }
+        for (String preference : prefer.split(",")) {
+            if (preference.split(";", 2)[0].trim().equalsIgnoreCase(RESPOND_ASYNC)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // NDJSON stays the default, including for */*; CBOR only when the client ranks it above NDJSON
+    private static boolean prefersCborSequence(String accept) {
+        if (accept == null) {
+            return false;
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+        mediaTypes.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.isCompatibleWith(APPLICATION_NDJSON)) {
+                return false;
+            }
+            if (mediaType.isCompatibleWith(APPLICATION_CBOR_SEQ)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Timestamps are stored as server local time
+    private static long toEpochMilli(LocalDateTime time) {
+        return time == null ? -1 : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
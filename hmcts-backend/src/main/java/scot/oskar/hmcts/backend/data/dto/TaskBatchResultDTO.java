@@ -0,0 +1,46 @@
+package scot.oskar.hmcts.backend.data.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+
+/**
+ * Outcome of a single item in a batch request, reported at the same index as the request item.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TaskBatchResultDTO {
+
+    private int index;
+
+    // HTTP status the item would have received as a single request
+    private int status;
+
+    private TaskDTO task;
+
+    private List<String> errors;
+
+    public static TaskBatchResultDTO success(int index, HttpStatus status, TaskDTO task) {
+        return TaskBatchResultDTO.builder()
+                .index(index)
+                .status(status.value())
+                .task(task)
+                .build();
+    }
+
+    public static TaskBatchResultDTO failure(int index, HttpStatus status, List<String> errors) {
+        return TaskBatchResultDTO.builder()
+                .index(index)
+                .status(status.value())
+                .errors(errors)
+                .build();
+    }
+}
@@ -0,0 +1,25 @@
+package scot.oskar.hmcts.backend.data.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskBatchUpdateDTO {
+
+    @NotNull(message = "Task ID is required")
+    private Long id;
+
+    // Same fields as a single update, inlined next to the ID
+    @Valid
+    @NotNull
+    @JsonUnwrapped
+    private TaskUpdateDTO changes;
+}
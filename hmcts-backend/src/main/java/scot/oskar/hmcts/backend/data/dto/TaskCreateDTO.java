@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import jakarta.validation.constraints.FutureOrPresent;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -21,6 +22,7 @@ public class TaskCreateDTO {
     @NotBlank(message = "Title is required")
     private String title;
 
+    @Size(max = 10000, message = "Description must be at most 10000 characters")
     private String description;
 
     @NotNull(message = "Status is required")
@@ -28,6 +28,11 @@ public class TaskDTO {
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
     private LocalDateTime updatedAt;
 
+    private Long version;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime overdueAt;
+
     public static TaskDTO fromEntity(Task task) {
         return TaskDTO.builder()
                 .id(task.getId())
@@ -37,6 +42,8 @@ public class TaskDTO {
                 .dueDate(task.getDueDate())
                 .createdAt(task.getCreatedAt())
                 .updatedAt(task.getUpdatedAt())
+                .version(task.getVersion())
+                .overdueAt(task.getOverdueAt())
                 .build();
     }
 }
\ No newline at end of file
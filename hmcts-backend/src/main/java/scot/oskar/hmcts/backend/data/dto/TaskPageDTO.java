@@ -0,0 +1,20 @@
+package scot.oskar.hmcts.backend.data.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskPageDTO {
+
+    private List<TaskDTO> items;
+
+    // Opaque token for the following page, null when this is the last page
+    private String nextCursor;
+}
@@ -0,0 +1,20 @@
+package scot.oskar.hmcts.backend.data.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskSearchPageDTO {
+
+    private List<TaskSearchResultDTO> items;
+
+    // Offset of the following page, null when this is the last page
+    private Integer nextOffset;
+}
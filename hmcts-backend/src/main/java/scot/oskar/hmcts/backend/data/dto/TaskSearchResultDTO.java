@@ -0,0 +1,22 @@
+package scot.oskar.hmcts.backend.data.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskSearchResultDTO {
+
+    private TaskDTO task;
+
+    // Higher is more relevant; only comparable between results of the same query
+    private double rank;
+
+    // HTML excerpt of the description, or the title when there is none, with matches wrapped in <mark> tags.
+    // The task text is HTML-escaped, so the snippet is safe to render as markup
+    private String snippet;
+}
@@ -0,0 +1,38 @@
+package scot.oskar.hmcts.backend.data.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import scot.oskar.hmcts.backend.data.model.Task;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskStatsDTO {
+
+    private Map<Task.TaskStatus, Long> countsByStatus;
+
+    // Tasks due before generatedAt, per status
+    private Map<Task.TaskStatus, Long> overdueByStatus;
+
+    // Open (pending or in progress) tasks due on each of the next seven days, starting today
+    private List<DueDay> dueThisWeek;
+
+    private LocalDateTime generatedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DueDay {
+
+        private LocalDate date;
+        private long count;
+    }
+}
@@ -0,0 +1,21 @@
+package scot.oskar.hmcts.backend.data.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import scot.oskar.hmcts.backend.data.model.Task;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskStatusChangeDTO {
+
+    @NotNull(message = "Task ID is required")
+    private Long id;
+
+    @NotNull(message = "Status is required")
+    private Task.TaskStatus status;
+}
@@ -3,6 +3,7 @@ package scot.oskar.hmcts.backend.data.dto;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import jakarta.validation.constraints.FutureOrPresent;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -18,6 +19,7 @@ import java.time.LocalDateTime;
 public class TaskUpdateDTO {
 
     private String title;
+    @Size(max = 10000, message = "Description must be at most 10000 characters")
     private String description;
 
     @NotNull(message = "Status is required")
@@ -27,6 +29,9 @@ public class TaskUpdateDTO {
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
     private LocalDateTime dueDate;
 
+    // Version the client last read; when given, the update is rejected if the task has changed since
+    private Long version;
+
     public void updateEntity(Task task) {
         if (this.title != null) {
             task.setTitle(this.title);
@@ -17,17 +17,18 @@ import java.time.LocalDateTime;
 public class Task {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tasks_seq")
+    @SequenceGenerator(name = "tasks_seq", sequenceName = "tasks_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
     private String title;
 
-    @Column
+    @Column(columnDefinition = "TEXT")
     private String description;
 
     @Column(nullable = false)
-    @Enumerated(EnumType.STRING)
+    @Convert(converter = TaskStatusConverter.class)
     private TaskStatus status;
 
     @Column(name = "due_date", nullable = false)
@@ -39,6 +40,20 @@ public class Task {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // When the overdue sweeper flagged the task, null while it is not overdue
+    @Column(name = "overdue_at")
+    private LocalDateTime overdueAt;
+
+    // Set when the archiver moves the task to the archive partition, see V9__Partition_tasks_by_archive_state.sql.
+    // Never written by the application otherwise
+    @Column(nullable = false, insertable = false, updatable = false)
+    private boolean archived;
+
+    // Incremented on every update; a write based on an older version fails instead of overwriting
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -48,12 +63,35 @@ public class Task {
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        if (overdueAt != null && dueDate.isAfter(updatedAt)) {
+            overdueAt = null;
+        }
     }
 
     public enum TaskStatus {
-        PENDING,
-        IN_PROGRESS,
-        COMPLETED,
-        CANCELLED
+        PENDING((short) 0),
+        IN_PROGRESS((short) 1),
+        COMPLETED((short) 2),
+        CANCELLED((short) 3);
+
+        // Persisted value, see V2__Add_task_indexes.sql
+        private final short code;
+
+        TaskStatus(short code) {
+            this.code = code;
+        }
+
+        public short getCode() {
+            return code;
+        }
+
+        public static TaskStatus fromCode(short code) {
+            for (TaskStatus status : values()) {
+                if (status.code == code) {
+                    return status;
+                }
+            }
+            throw new IllegalArgumentException("Unknown task status code: " + code);
+        }
     }
 }
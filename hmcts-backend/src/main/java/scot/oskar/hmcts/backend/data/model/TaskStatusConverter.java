@@ -0,0 +1,22 @@
+package scot.oskar.hmcts.backend.data.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Maps {@link Task.TaskStatus} to its stable SMALLINT code rather than its ordinal or name,
+ * so enum constants can be reordered or renamed without rewriting stored rows.
+ */
+@Converter
+public class TaskStatusConverter implements AttributeConverter<Task.TaskStatus, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(Task.TaskStatus status) {
+        return status != null ? status.getCode() : null;
+    }
+
+    @Override
+    public Task.TaskStatus convertToEntityAttribute(Short code) {
+        return code != null ? Task.TaskStatus.fromCode(code) : null;
+    }
+}
@@ -0,0 +1,35 @@
+package scot.oskar.hmcts.backend.data.query;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import scot.oskar.hmcts.backend.data.model.Task;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional filters applied when listing tasks. A null field means "no restriction".
+ * Archived tasks are left out unless asked for.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskFilter {
+
+    private Task.TaskStatus status;
+
+    // Exclusive upper bound on the due date
+    private LocalDateTime dueBefore;
+
+    // Inclusive lower bound on the due date
+    private LocalDateTime dueAfter;
+
+    // Also read the archive partition, which is skipped by default
+    private boolean includeArchived;
+
+    public static TaskFilter none() {
+        return new TaskFilter();
+    }
+}
@@ -0,0 +1,63 @@
+package scot.oskar.hmcts.backend.event;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends each message as a line of JSON to a local file, synced to disk before the batch is
+ * acknowledged.
+ */
+@Component
+@ConditionalOnProperty(name = "tasks.outbox.publisher", havingValue = "file", matchIfMissing = true)
+public class FileTaskEventPublisher implements TaskEventPublisher {
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final Path file;
+
+    public FileTaskEventPublisher(@Value("${tasks.outbox.file:outbox/task-events.ndjson}") Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxMessage> messages) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(messages.size() * 256);
+        try (JsonGenerator generator = jsonFactory.createGenerator(buffer)) {
+            generator.setRootValueSeparator(null);
+            for (OutboxMessage message : messages) {
+                generator.writeStartObject();
+                generator.writeNumberField("id", message.getId());
+                generator.writeNumberField("taskId", message.getTaskId());
+                generator.writeStringField("type", message.getType().name());
+                generator.writeStringField("createdAt", message.getCreatedAt().toString());
+                generator.writeFieldName("event");
+                generator.writeRawValue(message.getPayload());
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+        }
+
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        }
+    }
+}
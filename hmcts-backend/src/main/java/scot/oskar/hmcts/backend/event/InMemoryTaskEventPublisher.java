@@ -0,0 +1,40 @@
+package scot.oskar.hmcts.backend.event;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps delivered messages in memory, for tests. Can be told to fail the next delivery.
+ */
+@Component
+@ConditionalOnProperty(name = "tasks.outbox.publisher", havingValue = "memory")
+public class InMemoryTaskEventPublisher implements TaskEventPublisher {
+
+    private final List<OutboxMessage> published = new ArrayList<>();
+    private boolean failNext;
+
+    @Override
+    public synchronized void publish(List<OutboxMessage> messages) {
+        if (failNext) {
+            failNext = false;
+            throw new IllegalStateException("Simulated delivery failure");
+        }
+        published.addAll(messages);
+    }
+
+    public synchronized List<OutboxMessage> getPublished() {
+        return List.copyOf(published);
+    }
+
+    public synchronized void failNextPublish() {
+        failNext = true;
+    }
+
+    public synchronized void clear() {
+        published.clear();
+        failNext = false;
+    }
+}
@@ -0,0 +1,22 @@
+package scot.oskar.hmcts.backend.event;
+
+import lombok.Value;
+
+import java.time.OffsetDateTime;
+
+/**
+ * A task change read back from the outbox for delivery. The ID increases with insertion order
+ * and is stable across redeliveries, so consumers can use it to discard duplicates.
+ */
+@Value
+public class OutboxMessage {
+
+    long id;
+    Long taskId;
+    TaskChangedEvent.Type type;
+
+    // The TaskChangedEvent as JSON
+    String payload;
+
+    OffsetDateTime createdAt;
+}
@@ -0,0 +1,46 @@
+package scot.oskar.hmcts.backend.event;
+
+import lombok.Value;
+import scot.oskar.hmcts.backend.data.dto.TaskDTO;
+
+/**
+ * Published by the task service whenever a task is written. Listeners that need to
+ * see committed state should use {@code @TransactionalEventListener}.
+ */
+@Value
+public class TaskChangedEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        STATUS_CHANGED,
+        OVERDUE,
+        DELETED
+    }
+
+    Type type;
+    Long taskId;
+
+    // State after the change, null for deletions
+    TaskDTO task;
+
+    public static TaskChangedEvent created(TaskDTO task) {
+        return new TaskChangedEvent(Type.CREATED, task.getId(), task);
+    }
+
+    public static TaskChangedEvent updated(TaskDTO task) {
+        return new TaskChangedEvent(Type.UPDATED, task.getId(), task);
+    }
+
+    public static TaskChangedEvent statusChanged(TaskDTO task) {
+        return new TaskChangedEvent(Type.STATUS_CHANGED, task.getId(), task);
+    }
+
+    public static TaskChangedEvent overdue(TaskDTO task) {
+        return new TaskChangedEvent(Type.OVERDUE, task.getId(), task);
+    }
+
+    public static TaskChangedEvent deleted(Long taskId) {
+        return new TaskChangedEvent(Type.DELETED, taskId, null);
+    }
+}
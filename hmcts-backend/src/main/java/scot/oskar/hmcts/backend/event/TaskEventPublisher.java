@@ -0,0 +1,18 @@
+package scot.oskar.hmcts.backend.event;
+
+import java.util.List;
+
+/**
+ * Delivers task changes from the outbox to downstream systems.
+ */
+public interface TaskEventPublisher {
+
+    /**
+     * Deliver a batch of messages, in ID order. The batch stays in the outbox and is offered
+     * again unless this returns normally, so a message may be delivered more than once.
+     *
+     * @param messages Messages to deliver
+     * @throws Exception if any message could not be delivered
+     */
+    void publish(List<OutboxMessage> messages) throws Exception;
+}
@@ -0,0 +1,77 @@
+package scot.oskar.hmcts.backend.repository;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+/**
+ * JDBC access to the idempotency_keys table. Inserts join the caller's transaction, so a stored
+ * response only becomes visible together with the tasks it describes.
+ */
+@Repository
+public class IdempotencyKeyRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public IdempotencyKeyRepository(DataSource dataSource) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    /**
+     * Store the response for a key, replacing an expired key that has not been purged yet
+     *
+     * @throws DuplicateKeyException If a live response for the key is already stored
+     */
+    public void insert(String key, StoredResponse stored) {
+        int inserted = jdbcTemplate.update(
+                "INSERT INTO idempotency_keys (idempotency_key, request_hash, response, expires_at) "
+                        + "VALUES (:key, :requestHash, :response, :expiresAt) "
+                        + "ON CONFLICT (idempotency_key) DO UPDATE SET request_hash = EXCLUDED.request_hash, "
+                        + "response = EXCLUDED.response, expires_at = EXCLUDED.expires_at "
+                        + "WHERE idempotency_keys.expires_at <= now()",
+                new MapSqlParameterSource()
+                        .addValue("key", key)
+                        .addValue("requestHash", stored.requestHash())
+                        .addValue("response", stored.response())
+                        .addValue("expiresAt", stored.expiresAt()));
+        if (inserted == 0) {
+            throw new DuplicateKeyException("Idempotency-Key " + key + " is already stored");
+        }
+    }
+
+    /**
+     * Find the response stored for a key, ignoring expired keys that have not been purged yet
+     */
+    public Optional<StoredResponse> find(String key) {
+        return jdbcTemplate.query(
+                        "SELECT request_hash, response, expires_at FROM idempotency_keys "
+                                + "WHERE idempotency_key = :key AND expires_at > now()",
+                        new MapSqlParameterSource("key", key),
+                        (rs, rowNum) -> new StoredResponse(
+                                rs.getString("request_hash"),
+                                rs.getString("response"),
+                                rs.getObject("expires_at", OffsetDateTime.class)))
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Delete up to limit expired keys
+     *
+     * @return Number of keys deleted
+     */
+    public int deleteExpired(int limit) {
+        return jdbcTemplate.update(
+                "DELETE FROM idempotency_keys WHERE idempotency_key IN "
+                        + "(SELECT idempotency_key FROM idempotency_keys WHERE expires_at <= now() ORDER BY expires_at LIMIT :limit)",
+                new MapSqlParameterSource("limit", limit));
+    }
+
+    public record StoredResponse(String requestHash, String response, OffsetDateTime expiresAt) {
+    }
+}
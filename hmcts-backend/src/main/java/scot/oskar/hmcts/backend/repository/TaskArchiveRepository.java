@@ -0,0 +1,56 @@
+package scot.oskar.hmcts.backend.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves completed and cancelled tasks from the hot partition to the archive, one chunk per
+ * statement. Callers provide the transaction, which should cover a single chunk.
+ */
+@Repository
+public class TaskArchiveRepository {
+
+    // Walks idx_tasks_closed_updated_at, oldest first. Setting the partition key moves each row to
+    // tasks_archive, so archived rows drop out of the candidates and no cursor is needed between chunks.
+    // Rows locked by an interactive write are skipped and picked up by a later run. The version is bumped so
+    // that a write based on a read from before the move fails its version check instead of changing the archive
+    private static final String ARCHIVE_CHUNK_SQL = """
+            WITH chunk AS (
+                SELECT id FROM tasks
+                WHERE NOT archived AND status IN (2, 3) AND updated_at < :cutoff
+                ORDER BY updated_at, id
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED
+            )
+            UPDATE tasks t
+            SET archived = true, version = t.version + 1
+            FROM chunk
+            WHERE t.id = chunk.id AND NOT t.archived
+            RETURNING t.id
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public TaskArchiveRepository(DataSource dataSource) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    /**
+     * Archive the next chunk of closed tasks last modified before the cutoff, in a single UPDATE
+     *
+     * @param cutoff Tasks modified at or after this time stay in the hot partition
+     * @param limit Maximum number of tasks to archive
+     * @return IDs of the archived tasks
+     */
+    public List<Long> archiveNextChunk(LocalDateTime cutoff, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("cutoff", cutoff)
+                .addValue("limit", limit);
+        return jdbcTemplate.queryForList(ARCHIVE_CHUNK_SQL, params, Long.class);
+    }
+}
@@ -0,0 +1,85 @@
+package scot.oskar.hmcts.backend.repository;
+
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import scot.oskar.hmcts.backend.data.dto.TaskDTO;
+import scot.oskar.hmcts.backend.data.model.Task;
+import scot.oskar.hmcts.backend.data.query.TaskFilter;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+/**
+ * Streams tasks straight from a server-side cursor, bypassing the persistence context
+ * so that memory use does not depend on the number of rows read.
+ */
+@Repository
+public class TaskExportRepository {
+
+    static final RowMapper<TaskDTO> TASK_DTO_ROW_MAPPER = (rs, rowNum) -> TaskDTO.builder()
+            .id(rs.getLong("id"))
+            .title(rs.getString("title"))
+            .description(rs.getString("description"))
+            .status(Task.TaskStatus.fromCode(rs.getShort("status")))
+            .dueDate(toLocalDateTime(rs.getTimestamp("due_date")))
+            .createdAt(toLocalDateTime(rs.getTimestamp("created_at")))
+            .updatedAt(toLocalDateTime(rs.getTimestamp("updated_at")))
+            .version(rs.getLong("version"))
+            .overdueAt(toLocalDateTime(rs.getTimestamp("overdue_at")))
+            .build();
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public TaskExportRepository(DataSource dataSource, @Value("${tasks.export.fetch-size:500}") int fetchSize) {
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        // PostgreSQL only honours the fetch size inside a transaction, hence @Transactional below
+        template.setFetchSize(fetchSize);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(template);
+    }
+
+    /**
+     * Stream every task matching the filter, in ID order, to the consumer as rows are fetched
+     *
+     * @param filter Filters to apply
+     * @param consumer Receives each task as soon as its row is read
+     */
+    @Timed(value = "tasks.export", description = "Time spent streaming a task export", longTask = true)
+    @Transactional(readOnly = true)
+    public void streamTasks(TaskFilter filter, Consumer<TaskDTO> consumer) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, title, description, status, due_date, created_at, updated_at, version, overdue_at FROM tasks WHERE 1 = 1");
+        MapSqlParameterSource params = new MapSqlParameterSource();
+
+        if (!filter.isIncludeArchived()) {
+            sql.append(" AND NOT archived");
+        }
+        if (filter.getStatus() != null) {
+            sql.append(" AND status = :status");
+            params.addValue("status", filter.getStatus().getCode());
+        }
+        if (filter.getDueBefore() != null) {
+            sql.append(" AND due_date < :dueBefore");
+            params.addValue("dueBefore", filter.getDueBefore());
+        }
+        if (filter.getDueAfter() != null) {
+            sql.append(" AND due_date >= :dueAfter");
+            params.addValue("dueAfter", filter.getDueAfter());
+        }
+        sql.append(" ORDER BY id");
+
+        jdbcTemplate.query(sql.toString(), params,
+                rs -> consumer.accept(TASK_DTO_ROW_MAPPER.mapRow(rs, rs.getRow())));
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,87 @@
+package scot.oskar.hmcts.backend.repository;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import scot.oskar.hmcts.backend.event.OutboxMessage;
+import scot.oskar.hmcts.backend.event.TaskChangedEvent;
+
+import javax.sql.DataSource;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * JDBC access to the task_outbox table. Callers provide the transaction: inserts join the
+ * transaction that changed the task, and a locked batch stays locked until the relay commits.
+ */
+@Repository
+public class TaskOutboxRepository {
+
+    private static final RowMapper<OutboxMessage> OUTBOX_MESSAGE_ROW_MAPPER = (rs, rowNum) -> new OutboxMessage(
+            rs.getLong("id"),
+            rs.getLong("task_id"),
+            TaskChangedEvent.Type.valueOf(rs.getString("event_type")),
+            rs.getString("payload"),
+            rs.getObject("created_at", OffsetDateTime.class));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public TaskOutboxRepository(DataSource dataSource) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    /**
+     * Insert change events as one JDBC batch
+     *
+     * @param events Events to insert
+     * @param payloads JSON for each event, in the same order
+     */
+    public void insertAll(List<TaskChangedEvent> events, List<String> payloads) {
+        SqlParameterSource[] batch = new SqlParameterSource[events.size()];
+        for (int i = 0; i < events.size(); i++) {
+            batch[i] = new MapSqlParameterSource()
+                    .addValue("taskId", events.get(i).getTaskId())
+                    .addValue("eventType", events.get(i).getType().name())
+                    .addValue("payload", payloads.get(i));
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO task_outbox (task_id, event_type, payload) VALUES (:taskId, :eventType, :payload)", batch);
+    }
+
+    /**
+     * Lock the oldest undelivered messages. Rows locked by another relay are skipped rather than
+     * waited for, so several instances can drain the outbox side by side.
+     *
+     * @param limit Maximum number of messages
+     * @return Locked messages in ID order
+     */
+    public List<OutboxMessage> lockNextBatch(int limit) {
+        return jdbcTemplate.query(
+                "SELECT id, task_id, event_type, payload, created_at FROM task_outbox "
+                        + "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+                new MapSqlParameterSource("limit", limit),
+                OUTBOX_MESSAGE_ROW_MAPPER);
+    }
+
+    public void deleteAll(List<Long> ids) {
+        jdbcTemplate.update("DELETE FROM task_outbox WHERE id IN (:ids)", new MapSqlParameterSource("ids", ids));
+    }
+
+    /**
+     * Count undelivered messages and measure how long the oldest has been waiting
+     *
+     * @return Pending count and age of the oldest message in seconds, 0 when empty
+     */
+    public Backlog findBacklog() {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) AS pending, "
+                        + "COALESCE(EXTRACT(EPOCH FROM now() - min(created_at)), 0) AS oldest_age FROM task_outbox",
+                new MapSqlParameterSource(),
+                (rs, rowNum) -> new Backlog(rs.getLong("pending"), rs.getDouble("oldest_age")));
+    }
+
+    public record Backlog(long pending, double oldestAgeSeconds) {
+    }
+}
@@ -0,0 +1,68 @@
+package scot.oskar.hmcts.backend.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import scot.oskar.hmcts.backend.data.dto.TaskDTO;
+import scot.oskar.hmcts.backend.data.query.TaskCursor;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Flags open tasks that have passed their due date, one chunk per statement. Callers provide the
+ * transaction, which should cover a single chunk so that row locks are held only briefly.
+ */
+@Repository
+public class TaskOverdueRepository {
+
+    // Walks idx_tasks_overdue_unflagged in (due_date, id) order. Rows locked by an interactive write
+    // or by a sweeper on another instance are skipped and picked up by a later sweep
+    private static final String FLAG_CHUNK_SQL = """
+            WITH chunk AS (
+                SELECT id FROM tasks
+                WHERE NOT archived AND status IN (0, 1) AND overdue_at IS NULL AND due_date < :now%s
+                ORDER BY due_date, id
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED
+            )
+            UPDATE tasks t
+            SET overdue_at = :now, updated_at = :now, version = t.version + 1
+            FROM chunk
+            WHERE t.id = chunk.id AND NOT t.archived
+            RETURNING t.id, t.title, t.description, t.status, t.due_date, t.created_at, t.updated_at,
+                      t.version, t.overdue_at
+            """;
+
+    private static final String FIRST_CHUNK_SQL = FLAG_CHUNK_SQL.formatted("");
+
+    private static final String NEXT_CHUNK_SQL = FLAG_CHUNK_SQL.formatted(
+            " AND (due_date, id) > (:afterDueDate, :afterId)");
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public TaskOverdueRepository(DataSource dataSource) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    /**
+     * Flag the next chunk of open tasks due before now, in a single UPDATE
+     *
+     * @param now Time that tasks are overdue against, recorded as the time they were flagged
+     * @param after Position the previous chunk ended at, or null to start from the earliest due date
+     * @param limit Maximum number of tasks to flag
+     * @return Flagged tasks, in no particular order
+     */
+    public List<TaskDTO> flagNextChunk(LocalDateTime now, TaskCursor after, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("now", now)
+                .addValue("limit", limit);
+        if (after != null) {
+            params.addValue("afterDueDate", after.getDueDate())
+                    .addValue("afterId", after.getId());
+        }
+        return jdbcTemplate.query(after != null ? NEXT_CHUNK_SQL : FIRST_CHUNK_SQL, params,
+                TaskExportRepository.TASK_DTO_ROW_MAPPER);
+    }
+}
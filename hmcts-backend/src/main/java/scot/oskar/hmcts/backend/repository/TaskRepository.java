@@ -1,21 +1,70 @@
 package scot.oskar.hmcts.backend.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import scot.oskar.hmcts.backend.data.dto.TaskDTO;
 import scot.oskar.hmcts.backend.data.model.Task;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
+/**
+ * Reads cover the hot partition only: every query below skips archived tasks, as do
+ * {@link TaskRepositoryCustom} queries unless the filter asks for them.
+ */
 @Repository
-public interface TaskRepository extends JpaRepository<Task, Long> {
+public interface TaskRepository extends JpaRepository<Task, Long>, TaskRepositoryCustom {
 
     // Find tasks with due date before the given date
-    List<Task> findByDueDateBefore(LocalDateTime dueDate);
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT t FROM Task t WHERE t.dueDate < :dueDate AND t.archived = false")
+    List<Task> findByDueDateBefore(@Param("dueDate") LocalDateTime dueDate);
 
     // Find tasks by status
-    List<Task> findByStatus(Task.TaskStatus status);
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT t FROM Task t WHERE t.status = :status AND t.archived = false")
+    List<Task> findByStatus(@Param("status") Task.TaskStatus status);
 
     // Find tasks by status and due date before the given date
-    List<Task> findByStatusAndDueDateBefore(Task.TaskStatus status, LocalDateTime dueDate);
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT t FROM Task t WHERE t.status = :status AND t.dueDate < :dueDate AND t.archived = false")
+    List<Task> findByStatusAndDueDateBefore(@Param("status") Task.TaskStatus status,
+                                            @Param("dueDate") LocalDateTime dueDate);
+
+    // Selects straight into the DTO, so the task never enters the persistence context
+    @Transactional(readOnly = true)
+    @Query("SELECT new scot.oskar.hmcts.backend.data.dto.TaskDTO("
+            + "t.id, t.title, t.description, t.status, t.dueDate, t.createdAt, t.updatedAt, t.version, t.overdueAt) "
+            + "FROM Task t WHERE t.id = :id AND t.archived = false")
+    Optional<TaskDTO> findDtoById(@Param("id") Long id);
+
+    // Only the modification time, so conditional reads can be answered without loading the task
+    @Transactional(readOnly = true)
+    @Query("SELECT t.updatedAt FROM Task t WHERE t.id = :id AND t.archived = false")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") Long id);
+
+    // Change the status in a single statement and return the updated row, empty if no task has the ID.
+    // Only the status is written, so this cannot lose another update, but it still bumps the version
+    @Query(value = "UPDATE tasks SET status = :status, updated_at = :updatedAt, version = version + 1 "
+            + "WHERE id = :id AND NOT archived RETURNING *",
+            nativeQuery = true)
+    Optional<Task> updateStatus(@Param("id") Long id,
+                                @Param("status") short status,
+                                @Param("updatedAt") LocalDateTime updatedAt);
+
+    // Delete in a single statement, returning the number of rows removed
+    @Modifying
+    @Query("DELETE FROM Task t WHERE t.id = :id AND t.archived = false")
+    int deleteTaskById(@Param("id") Long id);
 }
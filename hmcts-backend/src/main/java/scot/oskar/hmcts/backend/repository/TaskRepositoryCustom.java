@@ -0,0 +1,20 @@
+package scot.oskar.hmcts.backend.repository;
+
+import scot.oskar.hmcts.backend.data.dto.TaskDTO;
+import scot.oskar.hmcts.backend.data.query.TaskCursor;
+import scot.oskar.hmcts.backend.data.query.TaskFilter;
+
+import java.util.List;
+
+public interface TaskRepositoryCustom {
+
+    /**
+     * Find a page of tasks ordered by due date then ID
+     *
+     * @param filter Filters to apply
+     * @param after Position to continue from, or null for the first page
+     * @param limit Maximum number of tasks to return
+     * @return Tasks strictly after the cursor position, selected straight into DTOs
+     */
+    List<TaskDTO> findPage(TaskFilter filter, TaskCursor after, int limit);
+}
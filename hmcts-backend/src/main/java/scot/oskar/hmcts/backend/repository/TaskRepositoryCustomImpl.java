@@ -0,0 +1,72 @@
+package scot.oskar.hmcts.backend.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import scot.oskar.hmcts.backend.data.dto.TaskDTO;
+import scot.oskar.hmcts.backend.data.model.Task;
+import scot.oskar.hmcts.backend.data.query.TaskCursor;
+import scot.oskar.hmcts.backend.data.query.TaskFilter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<TaskDTO> findPage(TaskFilter filter, TaskCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskDTO> query = cb.createQuery(TaskDTO.class);
+        Root<Task> task = query.from(Task.class);
+        Path<LocalDateTime> dueDate = task.get("dueDate");
+        Path<Long> id = task.get("id");
+
+        List<Predicate> predicates = filterPredicates(cb, task, filter);
+        if (after != null) {
+            // (due_date, id) > (:dueDate, :id); the redundant >= bound lets the planner seek the index
+            predicates.add(cb.greaterThanOrEqualTo(dueDate, after.getDueDate()));
+            predicates.add(cb.or(
+                    cb.greaterThan(dueDate, after.getDueDate()),
+                    cb.greaterThan(id, after.getId())));
+        }
+
+        // A constructor projection: rows go straight into DTOs, so no entities are managed or snapshotted
+        query.select(cb.construct(TaskDTO.class,
+                        id, task.get("title"), task.get("description"), task.get("status"),
+                        dueDate, task.get("createdAt"), task.get("updatedAt"), task.get("version"),
+                        task.get("overdueAt")))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.asc(dueDate), cb.asc(id));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private List<Predicate> filterPredicates(CriteriaBuilder cb, Root<Task> task, TaskFilter filter) {
+        Path<LocalDateTime> dueDate = task.get("dueDate");
+        List<Predicate> predicates = new ArrayList<>();
+        // Lets PostgreSQL prune the archive partition
+        if (!filter.isIncludeArchived()) {
+            predicates.add(cb.isFalse(task.get("archived")));
+        }
+        if (filter.getStatus() != null) {
+            predicates.add(cb.equal(task.get("status"), filter.getStatus()));
+        }
+        if (filter.getDueBefore() != null) {
+            predicates.add(cb.lessThan(dueDate, filter.getDueBefore()));
+        }
+        if (filter.getDueAfter() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(dueDate, filter.getDueAfter()));
+        }
+        return predicates;
+    }
+}
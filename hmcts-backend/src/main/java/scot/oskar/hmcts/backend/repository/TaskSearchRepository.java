@@ -0,0 +1,92 @@
+package scot.oskar.hmcts.backend.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.util.HtmlUtils;
+import scot.oskar.hmcts.backend.data.dto.TaskSearchResultDTO;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Full-text search over the generated search_vector column, see V6__Add_task_search.sql.
+ */
+@Repository
+public class TaskSearchRepository {
+
+    // Matches are found through the GIN index, then only the newest max-candidates of them are ranked, so
+    // a very common term stays cheap. The cap is taken in ID order, so results and paging are stable between
+    // requests, at the cost of older matches never being ranked for such a term. Headlines are built from
+    // the title and description, and only for the returned page
+    private static final String SEARCH_SQL = """
+            WITH query AS (
+                SELECT websearch_to_tsquery('english', :q) AS q
+            ), candidates AS (
+                SELECT t.*, ts_rank_cd(t.search_vector, query.q) AS rank
+                FROM tasks t, query
+                WHERE t.search_vector @@ query.q AND NOT t.archived
+                ORDER BY t.id DESC
+                LIMIT :maxCandidates
+            ), page AS (
+                SELECT * FROM candidates
+                ORDER BY rank DESC, id
+                LIMIT :limit OFFSET :offset
+            )
+            SELECT page.id, page.title, page.description, page.status, page.due_date,
+                   page.created_at, page.updated_at, page.version, page.overdue_at, page.rank,
+                   ts_headline('english', concat_ws(' ', page.title, page.description), query.q, :headlineOptions) AS snippet
+            FROM page, query
+            ORDER BY page.rank DESC, page.id
+            """;
+
+    // Matches are delimited with control characters, which survive HTML escaping, and only then turned into tags
+    private static final String START_SEL = "\u0002";
+    private static final String STOP_SEL = "\u0003";
+    private static final String HEADLINE_OPTIONS =
+            "StartSel=" + START_SEL + ", StopSel=" + STOP_SEL + ", MaxFragments=2, MaxWords=25, MinWords=8";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final int maxCandidates;
+
+    public TaskSearchRepository(DataSource dataSource, @Value("${tasks.search.max-candidates:10000}") int maxCandidates) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        this.maxCandidates = maxCandidates;
+    }
+
+    /**
+     * Find tasks matching a web-style search query, most relevant first
+     *
+     * @param query Search terms; supports quoted phrases, "or" and -exclusions
+     * @param offset Number of results to skip
+     * @param limit Maximum number of results
+     * @return Matching tasks with their rank and a highlighted snippet
+     */
+    @Transactional(readOnly = true)
+    public List<TaskSearchResultDTO> search(String query, int offset, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("q", query)
+                .addValue("maxCandidates", maxCandidates)
+                .addValue("offset", offset)
+                .addValue("limit", limit)
+                .addValue("headlineOptions", HEADLINE_OPTIONS);
+
+        return jdbcTemplate.query(SEARCH_SQL, params, (rs, rowNum) -> TaskSearchResultDTO.builder()
+                .task(TaskExportRepository.TASK_DTO_ROW_MAPPER.mapRow(rs, rowNum))
+                .rank(rs.getDouble("rank"))
+                .snippet(toHtml(rs.getString("snippet")))
+                .build());
+    }
+
+    // Task text is user input, so the snippet is escaped before the match markers become <mark> tags
+    static String toHtml(String headline) {
+        if (headline == null) {
+            return null;
+        }
+        return HtmlUtils.htmlEscape(headline)
+                .replace(START_SEL, "<mark>")
+                .replace(STOP_SEL, "</mark>");
+    }
+}
@@ -1,76 +1,365 @@
 package scot.oskar.hmcts.backend.repository;
 
-import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import scot.oskar.hmcts.backend.data.dto.TaskBatchResultDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskBatchUpdateDTO;
 import scot.oskar.hmcts.backend.data.dto.TaskCreateDTO;
 import scot.oskar.hmcts.backend.data.dto.TaskDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskPageDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskSearchPageDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskSearchResultDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskStatsDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskStatusChangeDTO;
 import scot.oskar.hmcts.backend.data.dto.TaskUpdateDTO;
 import scot.oskar.hmcts.backend.data.model.Task;
+import scot.oskar.hmcts.backend.data.query.TaskCursor;
+import scot.oskar.hmcts.backend.data.query.TaskFilter;
+import scot.oskar.hmcts.backend.event.TaskChangedEvent;
+import scot.oskar.hmcts.backend.exception.PreconditionFailedException;
 import scot.oskar.hmcts.backend.exception.ResourceNotFoundException;
+import scot.oskar.hmcts.backend.exception.ValidationException;
+import scot.oskar.hmcts.backend.service.PendingStatusChanges;
+import scot.oskar.hmcts.backend.service.TaskCache;
+import scot.oskar.hmcts.backend.service.TaskETags;
 import scot.oskar.hmcts.backend.service.TaskService;
+import scot.oskar.hmcts.backend.service.TaskStatsCache;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "tasks.service", description = "Time spent in TaskService methods", histogram = true)
 public class TaskServiceImpl implements TaskService {
 
+    // Attempts at a batch status change before a version conflict is reported to the caller
+    private static final int MAX_STATUS_UPDATE_ATTEMPTS = 3;
+
     private final TaskRepository taskRepository;
+    private final TaskExportRepository taskExportRepository;
+    private final TaskSearchRepository taskSearchRepository;
+    private final Validator validator;
+    private final TaskCache taskCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskStatsCache taskStatsCache;
+    private final PendingStatusChanges pendingStatusChanges;
 
     @Override
     @Transactional
     public TaskDTO createTask(TaskCreateDTO taskCreateDTO) {
         Task task = taskCreateDTO.toEntity();
         Task savedTask = taskRepository.save(task);
-        return TaskDTO.fromEntity(savedTask);
+        TaskDTO created = TaskDTO.fromEntity(savedTask);
+        eventPublisher.publishEvent(TaskChangedEvent.created(created));
+        return created;
     }
 
     @Override
     @Transactional
+    public List<TaskBatchResultDTO> createTasks(List<TaskCreateDTO> tasks) {
+        checkBatchSize(tasks);
+
+        List<TaskBatchResultDTO> results = new ArrayList<>(tasks.size());
+        List<Task> entities = new ArrayList<>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            List<String> errors = validate(tasks.get(i));
+            if (errors.isEmpty()) {
+                entities.add(tasks.get(i).toEntity());
+                results.add(null);
+            } else {
+                results.add(TaskBatchResultDTO.failure(i, HttpStatus.BAD_REQUEST, errors));
+            }
+        }
+
+        // IDs come from the pooled sequence, so the inserts themselves are batched at flush
+        taskRepository.saveAll(entities);
+
+        int next = 0;
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) == null) {
+                TaskDTO created = TaskDTO.fromEntity(entities.get(next++));
+                eventPublisher.publishEvent(TaskChangedEvent.created(created));
+                results.set(i, TaskBatchResultDTO.success(i, HttpStatus.CREATED, created));
+            }
+        }
+        return results;
+    }
+
+    // Deliberately not transactional: a cache hit must not borrow a connection from the pool.
+    // The pending change is looked up first, so one written in the meantime is still seen
+    @Override
     public TaskDTO getTaskById(Long id) {
-        Task task = findTaskById(id);
-        return TaskDTO.fromEntity(task);
+        PendingStatusChanges.Change pending = pendingStatusChanges.get(id);
+        TaskDTO cached = taskCache.get(id);
+        if (cached != null) {
+            return PendingStatusChanges.applyTo(cached, pending);
+        }
+        TaskDTO task = taskRepository.findDtoById(id)
+                .orElseThrow(() -> taskNotFound(id));
+        taskCache.put(task);
+        return PendingStatusChanges.applyTo(task, pending);
     }
 
+    // Not transactional for the same reason as getTaskById
     @Override
-    @Transactional
-    public List<TaskDTO> getAllTasks() {
-        return taskRepository.findAll().stream()
-                .map(TaskDTO::fromEntity)
-                .collect(Collectors.toList());
+    public LocalDateTime getTaskLastModified(Long id) {
+        TaskDTO cached = taskCache.get(id);
+        if (cached != null) {
+            return pendingStatusChanges.lastModified(id, cached.getUpdatedAt(), cached.getOverdueAt());
+        }
+        if (pendingStatusChanges.get(id) != null) {
+            // Whether the pending change still applies depends on the overdue flag too
+            return getTaskById(id).getUpdatedAt();
+        }
+        return taskRepository.findUpdatedAtById(id).orElseThrow(() -> taskNotFound(id));
+    }
+
+    // Read-only, so Hibernate skips the flush before commit and dirty checking
+    @Override
+    @Transactional(readOnly = true)
+    public TaskPageDTO getTasks(TaskFilter filter, String cursor, Integer limit) {
+        int pageSize = resolvePageSize(limit);
+        TaskCursor after = cursor == null || cursor.isBlank() ? null : TaskCursor.decode(cursor);
+
+        // Fetch one extra row to find out whether another page follows
+        List<TaskDTO> tasks = taskRepository.findPage(filter != null ? filter : TaskFilter.none(), after, pageSize + 1);
+        boolean hasMore = tasks.size() > pageSize;
+        List<TaskDTO> page = hasMore ? tasks.subList(0, pageSize) : tasks;
+
+        return TaskPageDTO.builder()
+                .items(pendingStatusChanges.applyTo(page))
+                .nextCursor(hasMore ? TaskCursor.of(page.get(page.size() - 1)).encode() : null)
+                .build();
+    }
+
+    @Override
+    public TaskSearchPageDTO searchTasks(String query, Integer offset, Integer limit) {
+        if (query == null || query.isBlank() || query.length() > MAX_SEARCH_QUERY_LENGTH) {
+            throw new ValidationException("Search query must be between 1 and " + MAX_SEARCH_QUERY_LENGTH + " characters");
+        }
+        int start = offset != null ? offset : 0;
+        if (start < 0 || start > MAX_SEARCH_OFFSET) {
+            throw new ValidationException("Offset must be between 0 and " + MAX_SEARCH_OFFSET);
+        }
+        int pageSize = resolvePageSize(limit);
+
+        List<TaskSearchResultDTO> results = taskSearchRepository.search(query, start, pageSize + 1);
+        boolean hasMore = results.size() > pageSize;
+        return TaskSearchPageDTO.builder()
+                .items(hasMore ? results.subList(0, pageSize) : results)
+                .nextOffset(hasMore ? start + pageSize : null)
+                .build();
+    }
+
+    @Override
+    public TaskStatsDTO getTaskStats() {
+        return taskStatsCache.get();
+    }
+
+    @Override
+    public void exportTasks(TaskFilter filter, Consumer<TaskDTO> consumer) {
+        taskExportRepository.streamTasks(filter != null ? filter : TaskFilter.none(), consumer);
     }
 
     @Override
     @Transactional
-    public TaskDTO updateTask(Long id, TaskUpdateDTO taskUpdateDTO) {
+    public TaskDTO updateTask(Long id, TaskUpdateDTO taskUpdateDTO, String ifMatch) {
         Task task = findTaskById(id);
+        LocalDateTime lastModified = pendingStatusChanges.lastModified(id, task.getUpdatedAt(), task.getOverdueAt());
+        if (ifMatch != null && !TaskETags.matches(ifMatch, TaskETags.of(task.getId(), lastModified))) {
+            throw new PreconditionFailedException("Task " + id + " has been modified");
+        }
+        if (isStale(task, taskUpdateDTO.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Task.class, id);
+        }
         taskUpdateDTO.updateEntity(task);
         Task updatedTask = taskRepository.save(task);
-        return TaskDTO.fromEntity(updatedTask);
+        // Flush so @PreUpdate has stamped updatedAt, which the returned entity tag is derived from. The UPDATE
+        // is conditional on the version read above, so a concurrent write fails here rather than being lost
+        taskRepository.flush();
+        TaskDTO updated = TaskDTO.fromEntity(updatedTask);
+        eventPublisher.publishEvent(TaskChangedEvent.updated(updated));
+        return updated;
     }
 
     @Override
     @Transactional
     public TaskDTO updateTaskStatus(Long id, Task.TaskStatus status) {
-        Task task = findTaskById(id);
-        task.setStatus(status);
-        Task updatedTask = taskRepository.save(task);
-        return TaskDTO.fromEntity(updatedTask);
+        Task updatedTask = taskRepository.updateStatus(id, status.getCode(), LocalDateTime.now())
+                .orElseThrow(() -> taskNotFound(id));
+        TaskDTO updated = TaskDTO.fromEntity(updatedTask);
+        eventPublisher.publishEvent(TaskChangedEvent.statusChanged(updated));
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public List<TaskBatchResultDTO> updateTasks(List<TaskBatchUpdateDTO> tasks) {
+        checkBatchSize(tasks);
+        Map<Long, Task> existing = findTasksById(tasks.stream()
+                .filter(item -> item != null && item.getId() != null)
+                .map(TaskBatchUpdateDTO::getId)
+                .toList());
+
+        List<TaskBatchResultDTO> results = new ArrayList<>(tasks.size());
+        List<Task> updated = new ArrayList<>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            TaskBatchUpdateDTO item = tasks.get(i);
+            List<String> errors = validate(item);
+            if (!errors.isEmpty()) {
+                results.add(TaskBatchResultDTO.failure(i, HttpStatus.BAD_REQUEST, errors));
+            } else if (!existing.containsKey(item.getId())) {
+                results.add(notFound(i, item.getId()));
+            } else if (isStale(existing.get(item.getId()), item.getChanges().getVersion())) {
+                results.add(TaskBatchResultDTO.failure(i, HttpStatus.CONFLICT,
+                        List.of("Task " + item.getId() + " has been modified")));
+            } else {
+                Task task = existing.get(item.getId());
+                item.getChanges().updateEntity(task);
+                updated.add(task);
+                results.add(null);
+            }
+        }
+
+        return completeBatch(results, updated, TaskChangedEvent::updated);
+    }
+
+    /**
+     * A status change does not depend on the rest of the task, so a version conflict is resolved by
+     * re-reading and applying it again. Each attempt runs in its own transaction.
+     */
+    @Override
+    public List<TaskBatchResultDTO> updateTaskStatuses(List<TaskStatusChangeDTO> changes) {
+        checkBatchSize(changes);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> applyStatusChanges(changes));
+            } catch (OptimisticLockingFailureException ex) {
+                if (attempt >= MAX_STATUS_UPDATE_ATTEMPTS) {
+                    throw ex;
+                }
+            }
+        }
+    }
+
+    private List<TaskBatchResultDTO> applyStatusChanges(List<TaskStatusChangeDTO> changes) {
+        Map<Long, Task> existing = findTasksById(changes.stream()
+                .filter(item -> item != null && item.getId() != null)
+                .map(TaskStatusChangeDTO::getId)
+                .toList());
+
+        List<TaskBatchResultDTO> results = new ArrayList<>(changes.size());
+        List<Task> updated = new ArrayList<>(changes.size());
+        for (int i = 0; i < changes.size(); i++) {
+            TaskStatusChangeDTO item = changes.get(i);
+            List<String> errors = validate(item);
+            if (!errors.isEmpty()) {
+                results.add(TaskBatchResultDTO.failure(i, HttpStatus.BAD_REQUEST, errors));
+            } else if (!existing.containsKey(item.getId())) {
+                results.add(notFound(i, item.getId()));
+            } else {
+                Task task = existing.get(item.getId());
+                task.setStatus(item.getStatus());
+                updated.add(task);
+                results.add(null);
+            }
+        }
+
+        return completeBatch(results, updated, TaskChangedEvent::statusChanged);
     }
 
     @Override
     @Transactional
     public void deleteTask(Long id) {
-        if (!taskRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Task not found with id: " + id);
+        if (taskRepository.deleteTaskById(id) == 0) {
+            throw taskNotFound(id);
+        }
+        eventPublisher.publishEvent(TaskChangedEvent.deleted(id));
+    }
+
+    private void checkBatchSize(Collection<?> items) {
+        if (items == null || items.isEmpty() || items.size() > MAX_BATCH_SIZE) {
+            throw new ValidationException("Batch must contain between 1 and " + MAX_BATCH_SIZE + " items");
+        }
+    }
+
+    private List<String> validate(Object item) {
+        if (item == null) {
+            return List.of("Item is required");
+        }
+        return validator.validate(item).stream()
+                .map(ConstraintViolation::getMessage)
+                .toList();
+    }
+
+    private static boolean isStale(Task task, Long expectedVersion) {
+        return expectedVersion != null && !expectedVersion.equals(task.getVersion());
+    }
+
+    // Archived tasks are read-only, so writes treat them as missing
+    private Map<Long, Task> findTasksById(List<Long> ids) {
+        return taskRepository.findAllById(ids).stream()
+                .filter(task -> !task.isArchived())
+                .collect(Collectors.toMap(Task::getId, Function.identity()));
+    }
+
+    private TaskBatchResultDTO notFound(int index, Long id) {
+        return TaskBatchResultDTO.failure(index, HttpStatus.NOT_FOUND, List.of("Task not found with id: " + id));
+    }
+
+    /**
+     * Flush the dirty tasks as one batch of UPDATEs, then fill the remaining result slots in order.
+     */
+    private List<TaskBatchResultDTO> completeBatch(List<TaskBatchResultDTO> results, List<Task> updated,
+                                                   Function<TaskDTO, TaskChangedEvent> event) {
+        // Flush so @PreUpdate has stamped updatedAt before the DTOs are built
+        taskRepository.flush();
+
+        int next = 0;
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) == null) {
+                TaskDTO task = TaskDTO.fromEntity(updated.get(next++));
+                eventPublisher.publishEvent(event.apply(task));
+                results.set(i, TaskBatchResultDTO.success(i, HttpStatus.OK, task));
+            }
         }
-        taskRepository.deleteById(id);
+        return results;
+    }
+
+    private int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ValidationException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return limit;
     }
 
     private Task findTaskById(Long id) {
         return taskRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Task not found with id: " + id));
+                .filter(task -> !task.isArchived())
+                .orElseThrow(() -> taskNotFound(id));
+    }
+
+    private ResourceNotFoundException taskNotFound(Long id) {
+        return new ResourceNotFoundException("Task not found with id: " + id);
     }
 }
@@ -0,0 +1,101 @@
+package scot.oskar.hmcts.backend.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import scot.oskar.hmcts.backend.data.dto.TaskStatsDTO;
+import scot.oskar.hmcts.backend.data.model.Task;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregates task counts for the dashboard in a single pass over the hot partition. Archived tasks
+ * are not counted.
+ */
+@Repository
+public class TaskStatsRepository {
+
+    static final int DAYS_AHEAD = 7;
+
+    // Grouping by status and, for tasks due in the coming week, their due day keeps the result
+    // to at most a few dozen rows however many tasks there are
+    private static final String STATS_SQL = """
+            SELECT status,
+                   CASE WHEN due_date >= :weekStart AND due_date < :weekEnd THEN CAST(due_date AS DATE) END AS due_day,
+                   count(*) AS total,
+                   count(*) FILTER (WHERE due_date < :now) AS overdue
+            FROM tasks
+            WHERE NOT archived
+            GROUP BY 1, 2
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public TaskStatsRepository(DataSource dataSource) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    /**
+     * Count tasks by status, overdue tasks by status and open tasks due on each of the next seven days
+     *
+     * @param now Point in time that tasks are overdue against; the week starts on its date
+     * @return Statistics as of now
+     */
+    @Transactional(readOnly = true)
+    public TaskStatsDTO loadStats(LocalDateTime now) {
+        LocalDate today = now.toLocalDate();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("now", now)
+                .addValue("weekStart", today.atStartOfDay())
+                .addValue("weekEnd", today.plusDays(DAYS_AHEAD).atStartOfDay());
+
+        Map<Task.TaskStatus, Long> counts = zeroCounts();
+        Map<Task.TaskStatus, Long> overdue = zeroCounts();
+        long[] dueByDay = new long[DAYS_AHEAD];
+
+        jdbcTemplate.query(STATS_SQL, params, rs -> {
+            Task.TaskStatus status = Task.TaskStatus.fromCode(rs.getShort("status"));
+            long total = rs.getLong("total");
+            counts.merge(status, total, Long::sum);
+            overdue.merge(status, rs.getLong("overdue"), Long::sum);
+
+            Date dueDay = rs.getDate("due_day");
+            if (dueDay != null && isOpen(status)) {
+                int day = (int) (dueDay.toLocalDate().toEpochDay() - today.toEpochDay());
+                dueByDay[day] += total;
+            }
+        });
+
+        List<TaskStatsDTO.DueDay> dueThisWeek = new ArrayList<>(DAYS_AHEAD);
+        for (int day = 0; day < DAYS_AHEAD; day++) {
+            dueThisWeek.add(new TaskStatsDTO.DueDay(today.plusDays(day), dueByDay[day]));
+        }
+
+        return TaskStatsDTO.builder()
+                .countsByStatus(counts)
+                .overdueByStatus(overdue)
+                .dueThisWeek(dueThisWeek)
+                .generatedAt(now)
+                .build();
+    }
+
+    private static boolean isOpen(Task.TaskStatus status) {
+        return status == Task.TaskStatus.PENDING || status == Task.TaskStatus.IN_PROGRESS;
+    }
+
+    private static Map<Task.TaskStatus, Long> zeroCounts() {
+        Map<Task.TaskStatus, Long> counts = new EnumMap<>(Task.TaskStatus.class);
+        for (Task.TaskStatus status : Task.TaskStatus.values()) {
+            counts.put(status, 0L);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,62 @@
+package scot.oskar.hmcts.backend.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import scot.oskar.hmcts.backend.data.dto.TaskDTO;
+import scot.oskar.hmcts.backend.service.PendingStatusChanges;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Writes buffered status changes, many tasks per statement. Callers provide the transaction.
+ */
+@Repository
+public class TaskStatusWriteRepository {
+
+    // One UPDATE for the whole chunk, joined against the changes passed as arrays. A change is skipped when the
+    // task has been written since the change was accepted, so an older buffered status never overwrites a newer
+    // write. The overdue sweeper's flag is the exception: it sets updated_at and overdue_at together, and does
+    // not supersede a status change a client has already been told about
+    private static final String APPLY_CHUNK_SQL = """
+            UPDATE tasks t
+            SET status = c.status, updated_at = c.changed_at, version = t.version + 1
+            FROM unnest(?::bigint[], ?::smallint[], ?::timestamp[]) AS c(id, status, changed_at)
+            WHERE t.id = c.id AND NOT t.archived
+              AND (t.updated_at IS NULL OR t.updated_at <= c.changed_at OR t.updated_at = t.overdue_at)
+            RETURNING t.id, t.title, t.description, t.status, t.due_date, t.created_at, t.updated_at,
+                      t.version, t.overdue_at
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TaskStatusWriteRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Apply status changes, at most one per task
+     *
+     * @return Tasks as written; superseded changes and deleted or archived tasks are left out
+     */
+    public List<TaskDTO> applyStatusChanges(List<PendingStatusChanges.Change> changes) {
+        Long[] ids = new Long[changes.size()];
+        Short[] statuses = new Short[changes.size()];
+        Timestamp[] changedAts = new Timestamp[changes.size()];
+        for (int i = 0; i < changes.size(); i++) {
+            PendingStatusChanges.Change change = changes.get(i);
+            ids[i] = change.taskId();
+            statuses[i] = change.status().getCode();
+            changedAts[i] = Timestamp.valueOf(change.changedAt());
+        }
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(APPLY_CHUNK_SQL);
+            statement.setArray(1, connection.createArrayOf("bigint", ids));
+            statement.setArray(2, connection.createArrayOf("smallint", statuses));
+            statement.setArray(3, connection.createArrayOf("timestamp", changedAts));
+            return statement;
+        }, TaskExportRepository.TASK_DTO_ROW_MAPPER);
+    }
+}
@@ -0,0 +1,147 @@
+package scot.oskar.hmcts.backend.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntSupplier;
+
+/**
+ * Base for background jobs that work through the tasks table in chunks, each in its own short transaction.
+ *
+ * <p>Interactive requests come first: the job pauses between chunks and waits while requests are
+ * queueing for a pooled connection, so it holds at most one connection and only briefly. A run stops
+ * early when cancelled, on shutdown or once it has used up its time budget.
+ */
+public abstract class ChunkedJob implements MeterBinder {
+
+    protected final int chunkSize;
+    private final HikariDataSource pool;
+    private final Duration pause;
+    private final Duration maxRunTime;
+    private final String metricPrefix;
+    private final String runMetric;
+    private final String runDescription;
+
+    private final AtomicBoolean cancelRequested = new AtomicBoolean();
+    private volatile boolean shuttingDown;
+
+    private Counter backoffCounter;
+    private Timer runTimer;
+
+    /**
+     * @param metricPrefix Prefix of the job's meters, e.g. tasks.archive
+     * @param runMetric Name of the run timer below the prefix
+     * @param runDescription Description of the run timer
+     */
+    protected ChunkedJob(String metricPrefix, String runMetric, String runDescription, DataSource dataSource,
+                         int chunkSize, Duration pause, Duration maxRunTime) {
+        this.metricPrefix = metricPrefix;
+        this.runMetric = runMetric;
+        this.runDescription = runDescription;
+        this.pool = unwrap(dataSource);
+        this.chunkSize = chunkSize;
+        this.pause = pause;
+        this.maxRunTime = maxRunTime;
+    }
+
+    /**
+     * Stop the current run after the chunk in progress. The next scheduled run starts as usual.
+     */
+    public void cancel() {
+        cancelRequested.set(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shuttingDown = true;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        backoffCounter = Counter.builder(metricPrefix + ".backoffs")
+                .description("Pauses taken because requests were waiting for a connection")
+                .register(registry);
+        runTimer = Timer.builder(metricPrefix + "." + runMetric)
+                .description(runDescription)
+                .register(registry);
+    }
+
+    /**
+     * Run chunks until one comes back short or the run is stopped
+     *
+     * @param nextChunk Processes the next chunk and returns the number of rows it handled
+     * @return Number of rows handled across all chunks
+     */
+    protected int runChunks(IntSupplier nextChunk) {
+        cancelRequested.set(false);
+        long deadline = System.nanoTime() + maxRunTime.toNanos();
+        long started = System.nanoTime();
+
+        int total = 0;
+        try {
+            while (!stopRequested(deadline) && awaitIdlePool(deadline)) {
+                int handled = nextChunk.getAsInt();
+                total += handled;
+                if (handled < chunkSize) {
+                    break;
+                }
+                sleep(pause);
+            }
+        } finally {
+            if (runTimer != null) {
+                runTimer.record(Duration.ofNanos(System.nanoTime() - started));
+            }
+        }
+        return total;
+    }
+
+    private boolean stopRequested(long deadline) {
+        return cancelRequested.get() || shuttingDown || Thread.currentThread().isInterrupted()
+                || System.nanoTime() - deadline > 0;
+    }
+
+    // Interactive requests come first: wait while any are queueing for a connection
+    private boolean awaitIdlePool(long deadline) {
+        while (isPoolContended()) {
+            if (backoffCounter != null) {
+                backoffCounter.increment();
+            }
+            sleep(pause);
+            if (stopRequested(deadline)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isPoolContended() {
+        HikariPoolMXBean poolBean = pool != null ? pool.getHikariPoolMXBean() : null;
+        return poolBean != null && poolBean.getThreadsAwaitingConnection() > 0;
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // The pool may sit beneath other wrappers such as the slow-query logger
+    private static HikariDataSource unwrap(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package scot.oskar.hmcts.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import scot.oskar.hmcts.backend.exception.IdempotencyKeyMismatchException;
+import scot.oskar.hmcts.backend.exception.ValidationException;
+import scot.oskar.hmcts.backend.repository.IdempotencyKeyRepository;
+import scot.oskar.hmcts.backend.repository.IdempotencyKeyRepository.StoredResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates requests sent with an Idempotency-Key, so a client retrying a create after a
+ * timeout gets the original response instead of a second task.
+ *
+ * <p>The response is stored in the idempotency_keys table in the same transaction as the work it
+ * describes: either both commit or neither does. Recently used keys are also kept in memory, so
+ * most replays need no query at all, and none of them touch the tasks table. Each key is tied to a
+ * hash of the request it was first used with, and reusing it for a different request is refused.
+ */
+@Slf4j
+@Component
+public class IdempotencyStore implements MeterBinder {
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    public record Outcome<T>(T response, boolean replayed) {
+    }
+
+    private record Executed<T>(T response, StoredResponse stored) {
+    }
+
+    private final IdempotencyKeyRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final int purgeBatchSize;
+    private final Cache<String, StoredResponse> recent;
+
+    private Counter replayCounter;
+
+    public IdempotencyStore(
+            IdempotencyKeyRepository repository,
+            TransactionTemplate transactionTemplate,
+            ObjectMapper objectMapper,
+            @Value("${tasks.idempotency.ttl:24h}") Duration ttl,
+            @Value("${tasks.idempotency.memory-size:10000}") long memorySize,
+            @Value("${tasks.idempotency.purge-batch-size:1000}") int purgeBatchSize) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.purgeBatchSize = purgeBatchSize;
+        // Entries expire with the stored key, not a full TTL after they were loaded
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(memorySize)
+                .expireAfter(Expiry.writing((String key, StoredResponse stored) -> remaining(stored)))
+                .build();
+    }
+
+    /**
+     * Run an action once per idempotency key
+     *
+     * @param key Client-supplied key, or null to run the action without deduplication
+     * @param operation Name of the operation, so a key cannot be replayed against a different one
+     * @param request Request body, hashed to detect a key reused for a different request
+     * @param responseType Type to read a stored response back as
+     * @param action Work to do the first time the key is seen; joins the transaction the response is stored in
+     * @return Response of the action, or the stored response when the key has been used before
+     * @throws IdempotencyKeyMismatchException If the key was first used with a different request
+     */
+    public <T> Outcome<T> execute(String key, String operation, Object request, TypeReference<T> responseType,
+                                  Supplier<T> action) {
+        if (key == null) {
+            return new Outcome<>(action.get(), false);
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new ValidationException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String requestHash = hash(operation, request);
+        StoredResponse existing = find(key);
+        if (existing != null) {
+            return replay(key, existing, requestHash, responseType);
+        }
+
+        try {
+            Executed<T> executed = transactionTemplate.execute(status -> {
+                T response = action.get();
+                StoredResponse stored = new StoredResponse(
+                        requestHash, write(response), OffsetDateTime.now().plus(ttl));
+                repository.insert(key, stored);
+                return new Executed<>(response, stored);
+            });
+            recent.put(key, executed.stored());
+            return new Outcome<>(executed.response(), false);
+        } catch (DuplicateKeyException ex) {
+            // A concurrent request with the same key committed first. This one has been rolled back,
+            // tasks included, and the first response stands
+            StoredResponse winner = repository.find(key).orElseThrow(() -> ex);
+            recent.put(key, winner);
+            return replay(key, winner, requestHash, responseType);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${tasks.idempotency.purge-interval:10m}",
+            fixedDelayString = "${tasks.idempotency.purge-interval:10m}")
+    public void purgeExpired() {
+        try {
+            int total = 0;
+            int deleted;
+            do {
+                deleted = repository.deleteExpired(purgeBatchSize);
+                total += deleted;
+            } while (deleted == purgeBatchSize);
+            if (total > 0) {
+                log.debug("Purged {} expired idempotency keys", total);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Purging expired idempotency keys failed, will retry on the next run", ex);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        replayCounter = Counter.builder("tasks.idempotency.replays")
+                .description("Requests answered with the response stored for their idempotency key")
+                .register(registry);
+    }
+
+    private StoredResponse find(String key) {
+        StoredResponse stored = recent.getIfPresent(key);
+        if (stored != null) {
+            return stored;
+        }
+        stored = repository.find(key).orElse(null);
+        if (stored != null) {
+            recent.put(key, stored);
+        }
+        return stored;
+    }
+
+    private static Duration remaining(StoredResponse stored) {
+        Duration remaining = Duration.between(OffsetDateTime.now(), stored.expiresAt());
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    private <T> Outcome<T> replay(String key, StoredResponse stored, String requestHash, TypeReference<T> responseType) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new IdempotencyKeyMismatchException(
+                    "Idempotency-Key " + key + " has already been used for a different request");
+        }
+        if (replayCounter != null) {
+            replayCounter.increment();
+        }
+        try {
+            return new Outcome<>(objectMapper.readValue(stored.response(), responseType), true);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Stored response for Idempotency-Key " + key + " could not be read", ex);
+        }
+    }
+
+    private String hash(String operation, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException ex) {
+            throw new IllegalStateException("Could not hash request for operation " + operation, ex);
+        }
+    }
+
+    private String write(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not store response", ex);
+        }
+    }
+}
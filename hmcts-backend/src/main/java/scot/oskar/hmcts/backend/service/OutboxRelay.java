@@ -0,0 +1,126 @@
+package scot.oskar.hmcts.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import scot.oskar.hmcts.backend.event.OutboxMessage;
+import scot.oskar.hmcts.backend.event.TaskEventPublisher;
+import scot.oskar.hmcts.backend.repository.TaskOutboxRepository;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves task change events from the outbox to the {@link TaskEventPublisher} in the background.
+ *
+ * <p>Each batch is locked, published and deleted in one transaction. If publishing fails, the
+ * transaction rolls back and the batch is offered again on the next poll, so delivery is
+ * at-least-once. Batches are delivered in ID order, but with several instances relaying at once
+ * only the ID, not arrival order, tells which change came first.
+ */
+@Slf4j
+@Component
+public class OutboxRelay implements MeterBinder {
+
+    private final TaskOutboxRepository outboxRepository;
+    private final TaskEventPublisher publisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong oldestAgeMillis = new AtomicLong();
+    private Counter publishedCounter;
+    private Counter failureCounter;
+    private Timer deliveryDelay;
+
+    public OutboxRelay(
+            TaskOutboxRepository outboxRepository,
+            TaskEventPublisher publisher,
+            TransactionTemplate transactionTemplate,
+            @Value("${tasks.outbox.batch-size:500}") int batchSize) {
+        this.outboxRepository = outboxRepository;
+        this.publisher = publisher;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${tasks.outbox.poll-interval:1s}", fixedDelayString = "${tasks.outbox.poll-interval:1s}")
+    public void poll() {
+        try {
+            relayPending();
+            TaskOutboxRepository.Backlog backlog = outboxRepository.findBacklog();
+            pending.set(backlog.pending());
+            oldestAgeMillis.set((long) (backlog.oldestAgeSeconds() * 1000));
+        } catch (RuntimeException ex) {
+            if (failureCounter != null) {
+                failureCounter.increment();
+            }
+            log.warn("Relaying task events failed, will retry on the next poll", ex);
+        }
+    }
+
+    /**
+     * Relay batches until the outbox has been drained
+     *
+     * @return Number of messages delivered
+     */
+    public int relayPending() {
+        int total = 0;
+        int relayed;
+        do {
+            relayed = transactionTemplate.execute(status -> relayBatch());
+            total += relayed;
+        } while (relayed == batchSize);
+        return total;
+    }
+
+    private int relayBatch() {
+        List<OutboxMessage> batch = outboxRepository.lockNextBatch(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            publisher.publish(batch);
+        } catch (Exception ex) {
+            throw new IllegalStateException("Could not publish task events", ex);
+        }
+        outboxRepository.deleteAll(batch.stream().map(OutboxMessage::getId).toList());
+
+        if (publishedCounter != null) {
+            OffsetDateTime now = OffsetDateTime.now();
+            publishedCounter.increment(batch.size());
+            batch.forEach(message -> deliveryDelay.record(Duration.between(message.getCreatedAt(), now)));
+        }
+        return batch.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("tasks.outbox.pending", pending, AtomicLong::get)
+                .description("Task events waiting in the outbox at the last poll")
+                .register(registry);
+        Gauge.builder("tasks.outbox.lag", oldestAgeMillis, age -> age.get() / 1000.0)
+                .description("Age of the oldest undelivered task event at the last poll")
+                .baseUnit("seconds")
+                .register(registry);
+        publishedCounter = Counter.builder("tasks.outbox.published")
+                .description("Task events delivered to the publisher")
+                .register(registry);
+        failureCounter = Counter.builder("tasks.outbox.failures")
+                .description("Polls that failed to deliver a batch")
+                .register(registry);
+        deliveryDelay = Timer.builder("tasks.outbox.delivery.delay")
+                .description("Time from a task change to delivery of its event")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
@@ -0,0 +1,104 @@
+package scot.oskar.hmcts.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import scot.oskar.hmcts.backend.data.dto.TaskDTO;
+import scot.oskar.hmcts.backend.data.query.TaskCursor;
+import scot.oskar.hmcts.backend.event.TaskChangedEvent;
+import scot.oskar.hmcts.backend.repository.TaskOverdueRepository;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Periodically flags pending and in-progress tasks that have passed their due date.
+ *
+ * <p>Tasks are flagged in chunks, each a single UPDATE in its own short transaction, walking the
+ * overdue tasks in due date order. Rows locked elsewhere are skipped, so sweepers on several
+ * instances can run side by side. Pausing, backing off and stopping are handled by {@link ChunkedJob}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "tasks.overdue.enabled", matchIfMissing = true)
+public class OverdueTaskSweeper extends ChunkedJob {
+
+    private final TaskOverdueRepository overdueRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    private Counter flaggedCounter;
+
+    public OverdueTaskSweeper(
+            TaskOverdueRepository overdueRepository,
+            ApplicationEventPublisher eventPublisher,
+            TransactionTemplate transactionTemplate,
+            DataSource dataSource,
+            @Value("${tasks.overdue.chunk-size:500}") int chunkSize,
+            @Value("${tasks.overdue.pause:100ms}") Duration pause,
+            @Value("${tasks.overdue.max-run-time:30s}") Duration maxRunTime) {
+        super("tasks.overdue", "sweep", "Time spent per overdue sweep", dataSource, chunkSize, pause, maxRunTime);
+        this.overdueRepository = overdueRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Scheduled(initialDelayString = "${tasks.overdue.interval:1m}", fixedDelayString = "${tasks.overdue.interval:1m}")
+    public void sweep() {
+        try {
+            flagOverdueTasks();
+        } catch (RuntimeException ex) {
+            log.warn("Sweeping overdue tasks failed, will retry on the next run", ex);
+        }
+    }
+
+    /**
+     * Flag open tasks due before now, chunk by chunk, until none are left or the run is stopped
+     *
+     * @return Number of tasks flagged
+     */
+    public int flagOverdueTasks() {
+        LocalDateTime now = LocalDateTime.now();
+        AtomicReference<TaskCursor> after = new AtomicReference<>();
+        int total = runChunks(() -> {
+            List<TaskDTO> chunk = transactionTemplate.execute(status -> flagChunk(now, after.get()));
+            chunk.stream()
+                    .map(task -> new TaskCursor(task.getDueDate(), task.getId()))
+                    .max(Comparator.comparing(TaskCursor::getDueDate).thenComparing(TaskCursor::getId))
+                    .ifPresent(after::set);
+            return chunk.size();
+        });
+        if (total > 0) {
+            log.info("Flagged {} overdue tasks", total);
+        }
+        return total;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        super.bindTo(registry);
+        flaggedCounter = Counter.builder("tasks.overdue.flagged")
+                .description("Tasks flagged as overdue")
+                .register(registry);
+    }
+
+    // Runs inside the chunk's transaction, so the events reach the outbox before it commits
+    private List<TaskDTO> flagChunk(LocalDateTime now, TaskCursor after) {
+        List<TaskDTO> flagged = overdueRepository.flagNextChunk(now, after, chunkSize);
+        flagged.forEach(task -> eventPublisher.publishEvent(TaskChangedEvent.overdue(task)));
+        if (flaggedCounter != null) {
+            flaggedCounter.increment(flagged.size());
+        }
+        return flagged;
+    }
+}
@@ -0,0 +1,110 @@
+package scot.oskar.hmcts.backend.service;
+
+import org.springframework.stereotype.Component;
+import scot.oskar.hmcts.backend.data.dto.TaskDTO;
+import scot.oskar.hmcts.backend.data.model.Task;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Status changes accepted by {@link StatusWriteBehind} but not yet written to the database,
+ * at most one per task. Reads by ID consult this buffer so clients see their own changes straight
+ * away. Empty unless write-behind is enabled.
+ */
+@Component
+public class PendingStatusChanges {
+
+    public record Change(Long taskId, Task.TaskStatus status, LocalDateTime changedAt) {
+    }
+
+    // Changes waiting for the next flush, and those the flush in progress is writing. Both are checked on
+    // reads, so a change stays visible until its UPDATE has committed
+    private volatile Map<Long, Change> pending = new ConcurrentHashMap<>();
+    private volatile Map<Long, Change> flushing = Map.of();
+
+    /**
+     * Latest change for a task that has not been written yet
+     *
+     * @return Change, or null if there is none
+     */
+    public Change get(Long taskId) {
+        Change change = pending.get(taskId);
+        return change != null ? change : flushing.get(taskId);
+    }
+
+    /**
+     * Overlay a pending change on a task read from the cache or the database. A change older than
+     * the task's last write has been superseded and is left out. The version is only bumped once
+     * the change is written.
+     */
+    public static TaskDTO applyTo(TaskDTO task, Change change) {
+        if (task == null || !applies(change, task.getUpdatedAt(), task.getOverdueAt())) {
+            return task;
+        }
+        return new TaskDTO(task.getId(), task.getTitle(), task.getDescription(), change.status(),
+                task.getDueDate(), task.getCreatedAt(), change.changedAt(), task.getVersion(), task.getOverdueAt());
+    }
+
+    public TaskDTO applyTo(TaskDTO task) {
+        return task != null ? applyTo(task, get(task.getId())) : null;
+    }
+
+    public List<TaskDTO> applyTo(List<TaskDTO> tasks) {
+        return size() == 0 ? tasks : tasks.stream().map(this::applyTo).toList();
+    }
+
+    /**
+     * Last modification time of a task, taking a pending change into account
+     */
+    public LocalDateTime lastModified(Long taskId, LocalDateTime updatedAt, LocalDateTime overdueAt) {
+        Change change = get(taskId);
+        return applies(change, updatedAt, overdueAt) ? change.changedAt() : updatedAt;
+    }
+
+    /**
+     * Whether a change will still be written over a task's last write. Flagging a task overdue does
+     * not supersede a change, matching {@link scot.oskar.hmcts.backend.repository.TaskStatusWriteRepository}.
+     */
+    static boolean applies(Change change, LocalDateTime updatedAt, LocalDateTime overdueAt) {
+        return change != null
+                && (updatedAt == null || !change.changedAt().isBefore(updatedAt) || updatedAt.equals(overdueAt));
+    }
+
+    public int size() {
+        return pending.size() + flushing.size();
+    }
+
+    // The callers below are serialised by StatusWriteBehind, together with the log appends
+
+    void put(Change change) {
+        pending.merge(change.taskId(), change, PendingStatusChanges::later);
+    }
+
+    /**
+     * Hand the pending changes to a flush. They stay readable until {@link #flushed()}.
+     */
+    Collection<Change> drain() {
+        Map<Long, Change> drained = pending;
+        flushing = drained;
+        pending = new ConcurrentHashMap<>();
+        return drained.values();
+    }
+
+    void flushed() {
+        flushing = Map.of();
+    }
+
+    // Put back changes a flush failed to write, unless a later change for the task has arrived since
+    void restore(Collection<Change> changes) {
+        changes.forEach(this::put);
+        flushing = Map.of();
+    }
+
+    private static Change later(Change current, Change candidate) {
+        return candidate.changedAt().isBefore(current.changedAt()) ? current : candidate;
+    }
+}
@@ -0,0 +1,197 @@
+package scot.oskar.hmcts.backend.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import lombok.extern.slf4j.Slf4j;
+import scot.oskar.hmcts.backend.data.model.Task;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Local write-ahead log for {@link StatusWriteBehind}. Each accepted change is appended as a line
+ * of JSON and synced to disk before it is acknowledged; changes written together can share a sync.
+ * The log is split into segments: a flush seals the current segment, and sealed segments are
+ * deleted once everything in them has been written to the database. Segments left over from a
+ * crash are read back on startup.
+ *
+ * <p>Not thread-safe, callers serialise access.
+ */
+@Slf4j
+public class StatusChangeLog implements Closeable {
+
+    private static final String PREFIX = "status-changes-";
+    private static final String SUFFIX = ".ndjson";
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final Path directory;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(128);
+
+    private long segment;
+    private FileChannel channel;
+
+    public StatusChangeLog(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        this.segment = segments().stream().mapToLong(StatusChangeLog::segmentNumber).max().orElse(0);
+    }
+
+    /**
+     * Read the changes in every segment, oldest first. A torn last line, left by a crash before the
+     * append was synced and acknowledged, is skipped.
+     */
+    public List<PendingStatusChanges.Change> recover() throws IOException {
+        List<PendingStatusChanges.Change> changes = new ArrayList<>();
+        for (Path path : segments()) {
+            for (String line : Files.readAllLines(path)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    changes.add(parse(line));
+                } catch (IOException | RuntimeException ex) {
+                    log.warn("Skipping unreadable status change in {}: {}", path.getFileName(), line);
+                }
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Append a change and sync it to disk
+     */
+    public void append(PendingStatusChanges.Change change) throws IOException {
+        write(change);
+        sync();
+    }
+
+    /**
+     * Append a change without syncing it. It is not durable until the next {@link #sync()}.
+     */
+    public void write(PendingStatusChanges.Change change) throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(segmentPath(++segment),
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            // Syncing the file alone does not persist its directory entry, without which the whole segment is lost
+            syncDirectory();
+        }
+        buffer.reset();
+        try (JsonGenerator generator = jsonFactory.createGenerator(buffer)) {
+            generator.writeStartObject();
+            generator.writeNumberField("id", change.taskId());
+            generator.writeNumberField("status", change.status().getCode());
+            generator.writeStringField("changedAt", change.changedAt().toString());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    /**
+     * Sync every change written to the current segment
+     */
+    public void sync() throws IOException {
+        if (channel != null) {
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Close the current segment. The next append starts a new one.
+     */
+    public void seal() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Delete every sealed segment, once all the changes in them have been written
+     */
+    public void deleteSealed() throws IOException {
+        boolean deleted = false;
+        for (Path path : segments()) {
+            if (channel == null || segmentNumber(path) != segment) {
+                deleted |= Files.deleteIfExists(path);
+            }
+        }
+        if (deleted) {
+            syncDirectory();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        seal();
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted((a, b) -> Long.compare(segmentNumber(a), segmentNumber(b)))
+                    .toList();
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private void syncDirectory() throws IOException {
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        }
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(PREFIX + String.format("%019d", number) + SUFFIX);
+    }
+
+    private static long segmentNumber(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private PendingStatusChanges.Change parse(String line) throws IOException {
+        Long id = null;
+        Task.TaskStatus status = null;
+        LocalDateTime changedAt = null;
+        try (JsonParser parser = jsonFactory.createParser(line)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected an object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "id" -> id = parser.getLongValue();
+                    case "status" -> status = Task.TaskStatus.fromCode((short) parser.getIntValue());
+                    case "changedAt" -> changedAt = LocalDateTime.parse(parser.getText());
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        if (id == null || status == null || changedAt == null) {
+            throw new IOException("Incomplete status change");
+        }
+        return new PendingStatusChanges.Change(id, status, changedAt);
+    }
+}
@@ -0,0 +1,301 @@
+package scot.oskar.hmcts.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import scot.oskar.hmcts.backend.data.dto.TaskDTO;
+import scot.oskar.hmcts.backend.data.model.Task;
+import scot.oskar.hmcts.backend.event.TaskChangedEvent;
+import scot.oskar.hmcts.backend.repository.TaskStatusWriteRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Accepts status changes without waiting for the database. A change is acknowledged once it has
+ * been synced to the local {@link StatusChangeLog}, and is held in {@link PendingStatusChanges}
+ * where repeated changes to the same task collapse into the latest. A background flush writes
+ * the buffered changes in batches, a chunk per statement, and publishes the usual
+ * status_changed events as they commit.
+ *
+ * <p>Reads by ID on this instance see a change as soon as it is accepted. Listings are filtered
+ * on the written status, and other instances see the change once it has been flushed. A write
+ * made after a change was accepted takes precedence over it.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "tasks.status-write-behind.enabled", havingValue = "true")
+public class StatusWriteBehind implements MeterBinder {
+
+    private final TaskService taskService;
+    private final TaskStatusWriteRepository repository;
+    private final PendingStatusChanges pending;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final StatusChangeLog changeLog;
+    private final int batchSize;
+    private final int maxPending;
+
+    // Guards the log together with the buffer, so a sealed segment holds exactly the changes a flush drains.
+    // A lock rather than a monitor, so virtual threads waiting for a sync are not pinned to their carrier
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Changes waiting for a sync, written by whichever submitter takes the lock next
+    private final Queue<LogAppend> appends = new ConcurrentLinkedQueue<>();
+
+    private Counter acceptedCounter;
+    private Counter logSyncCounter;
+    private Counter flushedCounter;
+    private Counter supersededCounter;
+    private Timer flushTimer;
+
+    public StatusWriteBehind(
+            TaskService taskService,
+            TaskStatusWriteRepository repository,
+            PendingStatusChanges pending,
+            ApplicationEventPublisher eventPublisher,
+            TransactionTemplate transactionTemplate,
+            @Value("${tasks.status-write-behind.log-dir:wal/status-changes}") Path logDir,
+            @Value("${tasks.status-write-behind.batch-size:500}") int batchSize,
+            @Value("${tasks.status-write-behind.max-pending:10000}") int maxPending) throws IOException {
+        this.taskService = taskService;
+        this.repository = repository;
+        this.pending = pending;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.changeLog = new StatusChangeLog(logDir);
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+    }
+
+    // Changes acknowledged before a crash or an unclean shutdown are written by the first flush
+    @PostConstruct
+    public void recover() throws IOException {
+        List<PendingStatusChanges.Change> recovered = changeLog.recover();
+        lock.lock();
+        try {
+            recovered.forEach(pending::put);
+        } finally {
+            lock.unlock();
+        }
+        if (!recovered.isEmpty()) {
+            log.info("Recovered {} status changes from the write-ahead log", recovered.size());
+        }
+    }
+
+    /**
+     * Accept a status change to be written in the background
+     *
+     * @param id Task ID
+     * @param status New status
+     * @return Task as it will be once the change is written, or empty if the buffer is full and the
+     *         change should be made synchronously instead
+     * @throws scot.oskar.hmcts.backend.exception.ResourceNotFoundException If the task does not exist
+     */
+    public Optional<TaskDTO> submit(Long id, Task.TaskStatus status) {
+        if (pending.size() >= maxPending) {
+            return Optional.empty();
+        }
+        TaskDTO current = taskService.getTaskById(id);
+        // Stored with the database's precision, so the entity tag does not change when the change is written
+        PendingStatusChanges.Change change = new PendingStatusChanges.Change(
+                id, status, LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        try {
+            logged(change).join();
+        } catch (CompletionException ex) {
+            throw (UncheckedIOException) ex.getCause();
+        }
+        if (acceptedCounter != null) {
+            acceptedCounter.increment();
+        }
+        return Optional.of(PendingStatusChanges.applyTo(current, change));
+    }
+
+    /**
+     * Group commit: the change is queued, and whoever takes the lock writes everything queued so far
+     * with a single sync. Submitters that arrive while a sync is running are committed together by
+     * the next one, so concurrent changes do not wait for one sync each.
+     *
+     * @return Completed once the change is durable and buffered
+     */
+    private CompletableFuture<Void> logged(PendingStatusChanges.Change change) {
+        LogAppend append = new LogAppend(change, new CompletableFuture<>());
+        appends.add(append);
+        lock.lock();
+        try {
+            if (append.done().isDone()) {
+                // Committed by the previous holder of the lock
+                return append.done();
+            }
+            List<LogAppend> batch = new ArrayList<>();
+            for (LogAppend next = appends.poll(); next != null; next = appends.poll()) {
+                batch.add(next);
+            }
+            try {
+                for (LogAppend next : batch) {
+                    changeLog.write(next.change());
+                }
+                changeLog.sync();
+            } catch (IOException ex) {
+                UncheckedIOException failure = new UncheckedIOException("Could not log status changes", ex);
+                batch.forEach(next -> next.done().completeExceptionally(failure));
+                return append.done();
+            }
+            // Buffered only once durable, and before the lock is released so a flush cannot seal the
+            // segment without draining them
+            batch.forEach(next -> pending.put(next.change()));
+            if (logSyncCounter != null) {
+                logSyncCounter.increment();
+            }
+            batch.forEach(next -> next.done().complete(null));
+            return append.done();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${tasks.status-write-behind.flush-interval:200ms}")
+    public void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            log.warn("Writing buffered status changes failed, will retry on the next flush", ex);
+        }
+    }
+
+    /**
+     * Write every buffered change. Changes that could not be written stay buffered and logged.
+     *
+     * @return Number of changes written
+     */
+    public synchronized int flush() {
+        List<PendingStatusChanges.Change> changes;
+        lock.lock();
+        try {
+            if (pending.size() == 0) {
+                return 0;
+            }
+            try {
+                changeLog.seal();
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Could not seal the status change log", ex);
+            }
+            changes = new ArrayList<>(pending.drain());
+        } finally {
+            lock.unlock();
+        }
+
+        long started = System.nanoTime();
+        int written = 0;
+        int applied = 0;
+        try {
+            while (written < changes.size()) {
+                List<PendingStatusChanges.Change> chunk =
+                        changes.subList(written, Math.min(written + batchSize, changes.size()));
+                applied += transactionTemplate.execute(status -> applyChunk(chunk));
+                written += chunk.size();
+            }
+        } catch (RuntimeException ex) {
+            lock.lock();
+            try {
+                pending.restore(changes.subList(written, changes.size()));
+            } finally {
+                lock.unlock();
+            }
+            throw ex;
+        } finally {
+            if (flushTimer != null) {
+                flushTimer.record(Duration.ofNanos(System.nanoTime() - started));
+            }
+        }
+
+        lock.lock();
+        try {
+            pending.flushed();
+            changeLog.deleteSealed();
+        } catch (IOException ex) {
+            // Replaying them on the next start only writes the same statuses again
+            log.warn("Could not delete written status change log segments", ex);
+        } finally {
+            lock.unlock();
+        }
+        if (supersededCounter != null) {
+            supersededCounter.increment(changes.size() - applied);
+        }
+        return applied;
+    }
+
+    // Write what is left before the database goes away; anything that fails is replayed from the log on startup
+    @PreDestroy
+    public void shutdown() throws IOException {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            log.warn("Could not write buffered status changes on shutdown, they will be written on the next start", ex);
+        }
+        lock.lock();
+        try {
+            changeLog.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("tasks.status-write-behind.pending", pending, PendingStatusChanges::size)
+                .description("Status changes accepted but not yet written")
+                .register(registry);
+        acceptedCounter = Counter.builder("tasks.status-write-behind.accepted")
+                .description("Status changes accepted for writing in the background")
+                .register(registry);
+        logSyncCounter = Counter.builder("tasks.status-write-behind.log-syncs")
+                .description("Write-ahead log syncs, each covering every change queued while the previous one ran")
+                .register(registry);
+        flushedCounter = Counter.builder("tasks.status-write-behind.written")
+                .description("Buffered status changes written to the database")
+                .register(registry);
+        supersededCounter = Counter.builder("tasks.status-write-behind.superseded")
+                .description("Buffered status changes dropped for a later write, or a deleted or archived task")
+                .register(registry);
+        flushTimer = Timer.builder("tasks.status-write-behind.flush")
+                .description("Time spent per flush of buffered status changes")
+                .register(registry);
+    }
+
+    private record LogAppend(PendingStatusChanges.Change change, CompletableFuture<Void> done) {
+    }
+
+    // Runs inside the chunk's transaction, so the events reach the outbox before it commits
+    private int applyChunk(List<PendingStatusChanges.Change> chunk) {
+        List<TaskDTO> updated = repository.applyStatusChanges(chunk);
+        updated.forEach(task -> eventPublisher.publishEvent(TaskChangedEvent.statusChanged(task)));
+        if (flushedCounter != null) {
+            flushedCounter.increment(updated.size());
+        }
+        return updated.size();
+    }
+}
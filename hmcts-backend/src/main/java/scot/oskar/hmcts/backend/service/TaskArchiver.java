@@ -0,0 +1,93 @@
+package scot.oskar.hmcts.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import scot.oskar.hmcts.backend.repository.TaskArchiveRepository;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Periodically moves completed and cancelled tasks that have not changed for a while to the
+ * archive partition, keeping the hot partition and its indexes down to live work.
+ *
+ * <p>Runs as a {@link ChunkedJob}, like {@link OverdueTaskSweeper}, skipping rows locked by
+ * interactive writes. Archived tasks are read-only and only reachable through listings and
+ * exports that include the archive.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "tasks.archive.enabled", matchIfMissing = true)
+public class TaskArchiver extends ChunkedJob {
+
+    private final TaskArchiveRepository archiveRepository;
+    private final TaskCache taskCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration olderThan;
+
+    private Counter archivedCounter;
+
+    public TaskArchiver(
+            TaskArchiveRepository archiveRepository,
+            TaskCache taskCache,
+            TransactionTemplate transactionTemplate,
+            DataSource dataSource,
+            @Value("${tasks.archive.older-than:90d}") Duration olderThan,
+            @Value("${tasks.archive.chunk-size:1000}") int chunkSize,
+            @Value("${tasks.archive.pause:100ms}") Duration pause,
+            @Value("${tasks.archive.max-run-time:5m}") Duration maxRunTime) {
+        super("tasks.archive", "run", "Time spent per archive run", dataSource, chunkSize, pause, maxRunTime);
+        this.archiveRepository = archiveRepository;
+        this.taskCache = taskCache;
+        this.transactionTemplate = transactionTemplate;
+        this.olderThan = olderThan;
+    }
+
+    @Scheduled(initialDelayString = "${tasks.archive.interval:1h}", fixedDelayString = "${tasks.archive.interval:1h}")
+    public void run() {
+        try {
+            archiveClosedTasks();
+        } catch (RuntimeException ex) {
+            log.warn("Archiving tasks failed, will retry on the next run", ex);
+        }
+    }
+
+    /**
+     * Archive closed tasks last modified more than older-than ago, chunk by chunk, until none are
+     * left or the run is stopped
+     *
+     * @return Number of tasks archived
+     */
+    public int archiveClosedTasks() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(olderThan);
+        int total = runChunks(() -> {
+            List<Long> chunk = transactionTemplate.execute(status -> archiveRepository.archiveNextChunk(cutoff, chunkSize));
+            // Archived tasks can no longer be read by ID. Caches on other instances expire on their own
+            chunk.forEach(taskCache::evict);
+            if (archivedCounter != null) {
+                archivedCounter.increment(chunk.size());
+            }
+            return chunk.size();
+        });
+        if (total > 0) {
+            log.info("Archived {} closed tasks", total);
+        }
+        return total;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        super.bindTo(registry);
+        archivedCounter = Counter.builder("tasks.archive.archived")
+                .description("Tasks moved to the archive partition")
+                .register(registry);
+    }
+}
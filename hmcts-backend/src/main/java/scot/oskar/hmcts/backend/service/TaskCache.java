@@ -0,0 +1,101 @@
+package scot.oskar.hmcts.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import scot.oskar.hmcts.backend.data.dto.TaskDTO;
+import scot.oskar.hmcts.backend.event.TaskChangedEvent;
+
+import java.time.Duration;
+
+/**
+ * Bounded in-process cache of tasks by ID, kept in step with writes through {@link TaskChangedEvent}s.
+ */
+@Component
+public class TaskCache implements MeterBinder {
+
+    private final Cache<Long, TaskDTO> cache;
+
+    // IDs evicted within the last ttl. A reader that loaded a task before it was deleted must not put it back
+    private final Cache<Long, Boolean> tombstones;
+
+    public TaskCache(
+            @Value("${tasks.cache.maximum-size:10000}") long maximumSize,
+            @Value("${tasks.cache.ttl:30s}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.tombstones = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public TaskDTO get(Long id) {
+        return cache.getIfPresent(id);
+    }
+
+    /**
+     * Cache a task unless a more recent copy is already present, or it has been evicted recently.
+     * This stops a slow reader from overwriting the state written by a concurrent, already committed
+     * update, or from bringing back a task deleted since it was read.
+     */
+    public void put(TaskDTO task) {
+        Long id = task.getId();
+        if (tombstones.getIfPresent(id) != null) {
+            return;
+        }
+        cache.asMap().merge(id, task, TaskCache::newer);
+        // An eviction may have run between the check and the merge; it tombstones before invalidating
+        if (tombstones.getIfPresent(id) != null) {
+            cache.invalidate(id);
+        }
+    }
+
+    /**
+     * Remove a task and keep it out of the cache for the next ttl
+     */
+    public void evict(Long id) {
+        tombstones.put(id, Boolean.TRUE);
+        cache.invalidate(id);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    // Publishes size, hit, miss and eviction metrics under cache=tasks
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "tasks");
+    }
+
+    // Runs after commit so the cache never exposes state that may still be rolled back
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (event.getType() == TaskChangedEvent.Type.DELETED) {
+            evict(event.getTaskId());
+        } else {
+            put(event.getTask());
+        }
+    }
+
+    private static TaskDTO newer(TaskDTO current, TaskDTO candidate) {
+        if (current.getVersion() != null && candidate.getVersion() != null) {
+            return candidate.getVersion() < current.getVersion() ? current : candidate;
+        }
+        if (current.getUpdatedAt() != null && candidate.getUpdatedAt() != null
+                && candidate.getUpdatedAt().isBefore(current.getUpdatedAt())) {
+            return current;
+        }
+        return candidate;
+    }
+}
@@ -0,0 +1,359 @@
+package scot.oskar.hmcts.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import scot.oskar.hmcts.backend.event.TaskChangedEvent;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans committed task changes out to Server-Sent Event subscribers.
+ *
+ * <p>Publishing never blocks on a subscriber: each event is serialised once, then queued per
+ * subscriber, where a newer change to a task replaces any undelivered one. A small pool of sender
+ * threads drains the queues, one batch per turn, so subscribers take turns on the pool. A subscriber
+ * that falls too far behind has its queue dropped and is told to reload instead, and one whose
+ * client stops reading is disconnected once a send has been stuck for the write timeout.
+ *
+ * <p>Recent events are kept in a ring buffer so a reconnecting client can resume from its
+ * Last-Event-ID. Event IDs are prefixed with the start time of this instance, so IDs from a
+ * previous run, or ones already overwritten in the buffer, also lead to a reload.
+ * The feed only carries changes made through this instance.
+ */
+@Slf4j
+@Component
+public class TaskChangeFeed implements MeterBinder {
+
+    static final String RESYNC_EVENT = "resync";
+
+    private final ObjectMapper objectMapper;
+    private final long timeoutMillis;
+    private final int maxSubscribers;
+    private final int maxPendingPerSubscriber;
+    private final int batchSize;
+    private final long writeTimeoutNanos;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Object lock = new Object();
+    private final FeedEvent[] recent;
+    private long sequence;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders;
+    private final ScheduledExecutorService heartbeats;
+
+    private Counter resyncCounter;
+    private Counter droppedCounter;
+
+    public TaskChangeFeed(
+            ObjectMapper objectMapper,
+            @Value("${tasks.stream.buffer-size:1024}") int bufferSize,
+            @Value("${tasks.stream.max-subscribers:10000}") int maxSubscribers,
+            @Value("${tasks.stream.max-pending:1000}") int maxPendingPerSubscriber,
+            @Value("${tasks.stream.sender-threads:4}") int senderThreads,
+            @Value("${tasks.stream.batch-size:100}") int batchSize,
+            @Value("${tasks.stream.timeout:30m}") Duration timeout,
+            @Value("${tasks.stream.heartbeat:15s}") Duration heartbeat,
+            @Value("${tasks.stream.write-timeout:10s}") Duration writeTimeout) {
+        this.objectMapper = objectMapper;
+        this.recent = new FeedEvent[bufferSize];
+        this.maxSubscribers = maxSubscribers;
+        this.maxPendingPerSubscriber = maxPendingPerSubscriber;
+        this.batchSize = batchSize;
+        this.timeoutMillis = timeout.toMillis();
+        this.writeTimeoutNanos = writeTimeout.toNanos();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "task-feed-sender-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-feed-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Comments keep idle connections open through proxies and reveal clients that have gone away
+        heartbeats.scheduleAtFixedRate(() -> subscribers.forEach(Subscriber::heartbeat),
+                heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+        long stallCheckMillis = Math.max(writeTimeout.toMillis() / 2, 10);
+        heartbeats.scheduleAtFixedRate(() -> subscribers.forEach(Subscriber::dropIfStalled),
+                stallCheckMillis, stallCheckMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Open a stream of task changes
+     *
+     * @param lastEventId ID of the last event the client received, or null for a new stream
+     * @return Emitter for the response
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many task stream subscribers");
+        }
+
+        SseEmitter emitter = createEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(ex -> subscribers.remove(subscriber));
+
+        // Registration and replay happen under the same lock as publication, so nothing falls in between
+        synchronized (lock) {
+            subscribers.add(subscriber);
+            subscriber.lastSequence = sequence;
+            if (lastEventId != null) {
+                Long resumeFrom = parseSequence(lastEventId);
+                long oldest = Math.max(1, sequence - recent.length + 1);
+                if (resumeFrom == null || resumeFrom > sequence || resumeFrom + 1 < oldest) {
+                    subscriber.resyncNeeded = true;
+                } else {
+                    subscriber.lastSequence = resumeFrom;
+                    for (long seq = resumeFrom + 1; seq <= sequence; seq++) {
+                        subscriber.offer(recent[(int) (seq % recent.length)]);
+                    }
+                }
+            }
+        }
+        subscriber.schedule();
+        return emitter;
+    }
+
+    // After commit, so subscribers never see a change that is rolled back
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException ex) {
+            log.warn("Could not serialise change to task {}", event.getTaskId(), ex);
+            return;
+        }
+
+        // Offered under the lock so every subscriber receives events in sequence order: one offered
+        // out of order would be taken as already seen and dropped. Offering only queues, so this is brief
+        synchronized (lock) {
+            long seq = ++sequence;
+            FeedEvent feedEvent = new FeedEvent(seq, epoch + "-" + seq, event.getTaskId(),
+                    event.getType().name().toLowerCase(Locale.ROOT), data);
+            recent[(int) (seq % recent.length)] = feedEvent;
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(feedEvent);
+            }
+        }
+        subscribers.forEach(Subscriber::schedule);
+    }
+
+    protected SseEmitter createEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("tasks.stream.subscribers", subscribers, Set::size)
+                .description("Open task change streams")
+                .register(registry);
+        resyncCounter = Counter.builder("tasks.stream.resyncs")
+                .description("Subscribers told to reload because they fell behind or resumed from an unknown event")
+                .register(registry);
+        droppedCounter = Counter.builder("tasks.stream.dropped")
+                .description("Subscribers disconnected because a send to them stalled")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private Long parseSequence(String eventId) {
+        int separator = eventId.indexOf('-');
+        if (separator < 0 || !eventId.substring(0, separator).equals(epoch)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(eventId.substring(separator + 1));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private record FeedEvent(long sequence, String id, Long taskId, String name, String data) {
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        // Undelivered events by task ID, oldest first. Guarded by this
+        private final Map<Long, FeedEvent> pending = new LinkedHashMap<>();
+        private long lastSequence;
+        private boolean resyncNeeded;
+        private boolean heartbeatDue;
+        private boolean scheduled;
+        private boolean dropped;
+
+        // Thread blocked in a send and when the send started, or null between sends. Guarded by this
+        private Thread sendingThread;
+        private long sendStarted;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        synchronized void offer(FeedEvent event) {
+            if (event.sequence() <= lastSequence) {
+                return;
+            }
+            lastSequence = event.sequence();
+            if (resyncNeeded) {
+                // A reload is already due and will pick this change up
+                return;
+            }
+            // Remove first so the replacement moves to the back and delivery stays in sequence order
+            pending.remove(event.taskId());
+            pending.put(event.taskId(), event);
+            if (pending.size() > maxPendingPerSubscriber) {
+                pending.clear();
+                resyncNeeded = true;
+            }
+        }
+
+        synchronized void heartbeat() {
+            heartbeatDue = true;
+            schedule();
+        }
+
+        synchronized void schedule() {
+            if (!scheduled && !dropped && (resyncNeeded || heartbeatDue || !pending.isEmpty())) {
+                scheduled = true;
+                senders.execute(this::drain);
+            }
+        }
+
+        // A client that stops reading blocks its send once the socket buffers fill. Interrupting the sender
+        // frees its thread where the container allows it; otherwise the container's own write timeout does.
+        // On reconnect the client resumes from its Last-Event-ID or is told to reload
+        synchronized void dropIfStalled() {
+            if (sendingThread == null || System.nanoTime() - sendStarted < writeTimeoutNanos) {
+                return;
+            }
+            dropped = true;
+            pending.clear();
+            subscribers.remove(this);
+            sendingThread.interrupt();
+            if (droppedCounter != null) {
+                droppedCounter.increment();
+            }
+        }
+
+        // Sends one batch, then goes to the back of the sender queue so other subscribers get a turn
+        private void drain() {
+            List<FeedEvent> batch = new ArrayList<>();
+            boolean resync;
+            boolean heartbeat;
+            long resyncSequence;
+            synchronized (this) {
+                resync = resyncNeeded;
+                heartbeat = heartbeatDue;
+                resyncNeeded = false;
+                heartbeatDue = false;
+                resyncSequence = lastSequence;
+                Iterator<FeedEvent> iterator = pending.values().iterator();
+                while (iterator.hasNext() && batch.size() < batchSize) {
+                    batch.add(iterator.next());
+                    iterator.remove();
+                }
+            }
+
+            try {
+                if (resync) {
+                    if (resyncCounter != null) {
+                        resyncCounter.increment();
+                    }
+                    send(SseEmitter.event()
+                            .id(epoch + "-" + resyncSequence)
+                            .name(RESYNC_EVENT)
+                            .data("{}"));
+                }
+                for (FeedEvent event : batch) {
+                    send(SseEmitter.event().id(event.id()).name(event.name()).data(event.data()));
+                }
+                if (heartbeat && !resync && batch.isEmpty()) {
+                    send(SseEmitter.event().comment("keep-alive"));
+                }
+                checkNotDropped();
+            } catch (IOException | IllegalStateException ex) {
+                // The client has gone away, stalled, or the emitter has already completed
+                synchronized (this) {
+                    dropped = true;
+                    pending.clear();
+                }
+                subscribers.remove(this);
+                emitter.completeWithError(ex);
+                return;
+            }
+
+            synchronized (this) {
+                scheduled = false;
+                schedule();
+            }
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) throws IOException {
+            synchronized (this) {
+                checkNotDropped();
+                sendingThread = Thread.currentThread();
+                sendStarted = System.nanoTime();
+            }
+            try {
+                emitter.send(event);
+            } finally {
+                synchronized (this) {
+                    sendingThread = null;
+                    // Clear an interrupt that arrived as the send completed, before the thread moves on
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        private synchronized void checkNotDropped() {
+            if (dropped) {
+                throw new IllegalStateException("Subscriber dropped after a stalled send");
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package scot.oskar.hmcts.backend.service;
+
+import scot.oskar.hmcts.backend.data.dto.TaskDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskPageDTO;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Entity tags for tasks and task listings. A task's tag is derived from its ID and
+ * modification time, so it can be computed without loading the task itself.
+ */
+public final class TaskETags {
+
+    private TaskETags() {
+    }
+
+    public static String of(Long id, LocalDateTime updatedAt) {
+        return "\"" + id + "-" + Long.toHexString(toMicros(updatedAt)) + "\"";
+    }
+
+    public static String of(TaskDTO task) {
+        return of(task.getId(), task.getUpdatedAt());
+    }
+
+    /**
+     * Weak tag for a page of a listing, derived from the ID, version and modification time of each
+     * task on it and the cursor for the next page, so it changes whenever the page would. Weak because
+     * the JSON, CBOR and Smile representations, compressed or not, are equivalent but not
+     * byte-identical, and Tomcat only compresses responses without a strong tag.
+     */
+    public static String of(TaskPageDTO page) {
+        long hash = 0;
+        for (TaskDTO task : page.getItems()) {
+            hash = combine(hash, task.getId() != null ? task.getId() : 0);
+            hash = combine(hash, task.getVersion() != null ? task.getVersion() : 0);
+            // Also moves for a pending status change, which is shown before the version is bumped
+            hash = combine(hash, toMicros(task.getUpdatedAt()));
+        }
+        hash = combine(hash, page.getNextCursor() != null ? page.getNextCursor().hashCode() : 0);
+        return "W/\"p" + page.getItems().size() + "-" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * Check an If-Match header against the current tag using strong comparison.
+     *
+     * @param ifMatch Header value: "*" or a comma-separated list of tags
+     * @param etag Current tag of the resource
+     * @return Whether the precondition holds
+     */
+    public static boolean matches(String ifMatch, String etag) {
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Mixes each value before folding it in, so near-identical pages still get unrelated tags
+    private static long combine(long hash, long value) {
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        return (hash ^ value) * 0x9e3779b97f4a7c15L;
+    }
+
+    // PostgreSQL keeps microseconds, so anything finer would differ between a cached copy and the stored row
+    private static long toMicros(LocalDateTime time) {
+        if (time == null) {
+            return 0;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+}
@@ -1,14 +1,29 @@
 package scot.oskar.hmcts.backend.service;
 
+import scot.oskar.hmcts.backend.data.dto.TaskBatchResultDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskBatchUpdateDTO;
 import scot.oskar.hmcts.backend.data.dto.TaskCreateDTO;
 import scot.oskar.hmcts.backend.data.dto.TaskDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskPageDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskSearchPageDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskStatsDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskStatusChangeDTO;
 import scot.oskar.hmcts.backend.data.dto.TaskUpdateDTO;
 import scot.oskar.hmcts.backend.data.model.Task;
+import scot.oskar.hmcts.backend.data.query.TaskFilter;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface TaskService {
 
+    int DEFAULT_PAGE_SIZE = 50;
+    int MAX_PAGE_SIZE = 200;
+    int MAX_BATCH_SIZE = 1000;
+    int MAX_SEARCH_QUERY_LENGTH = 200;
+    int MAX_SEARCH_OFFSET = 1000;
+
     /**
      * Create a new task
      *
@@ -17,6 +32,14 @@ public interface TaskService {
      */
     TaskDTO createTask(TaskCreateDTO taskCreateDTO);
 
+    /**
+     * Create several tasks in one transaction
+     *
+     * @param tasks Task creation data
+     * @return Result for each item, in request order
+     */
+    List<TaskBatchResultDTO> createTasks(List<TaskCreateDTO> tasks);
+
     /**
      * Get task by ID
      *
@@ -26,11 +49,47 @@ public interface TaskService {
     TaskDTO getTaskById(Long id);
 
     /**
-     * Get all tasks
+     * Get when a task was last modified, without loading it
+     *
+     * @param id Task ID
+     * @return Modification time of the task
+     */
+    LocalDateTime getTaskLastModified(Long id);
+
+    /**
+     * Get a page of tasks ordered by due date
      *
-     * @return List of all tasks
+     * @param filter Filters to apply
+     * @param cursor Continuation token from a previous page, or null for the first page
+     * @param limit Page size, or null for the default
+     * @return Page of tasks with the token for the next page
      */
-    List<TaskDTO> getAllTasks();
+    TaskPageDTO getTasks(TaskFilter filter, String cursor, Integer limit);
+
+    /**
+     * Search task titles and descriptions
+     *
+     * @param query Search terms
+     * @param offset Number of results to skip, or null for the first page
+     * @param limit Page size, or null for the default
+     * @return Page of results, most relevant first
+     */
+    TaskSearchPageDTO searchTasks(String query, Integer offset, Integer limit);
+
+    /**
+     * Get task counts for the dashboard, which may be a few seconds old
+     *
+     * @return Counts by status, overdue counts and open tasks due in the coming week
+     */
+    TaskStatsDTO getTaskStats();
+
+    /**
+     * Stream every task matching the filter without materialising the result
+     *
+     * @param filter Filters to apply
+     * @param consumer Receives each task as it is read from the database
+     */
+    void exportTasks(TaskFilter filter, Consumer<TaskDTO> consumer);
 
     /**
      * Update task
@@ -39,7 +98,19 @@ public interface TaskService {
      * @param taskUpdateDTO Task update data
      * @return Updated task
      */
-    TaskDTO updateTask(Long id, TaskUpdateDTO taskUpdateDTO);
+    default TaskDTO updateTask(Long id, TaskUpdateDTO taskUpdateDTO) {
+        return updateTask(id, taskUpdateDTO, null);
+    }
+
+    /**
+     * Update task if it still matches the entity tag the client last saw
+     *
+     * @param id Task ID
+     * @param taskUpdateDTO Task update data
+     * @param ifMatch If-Match header value, or null to update unconditionally
+     * @return Updated task
+     */
+    TaskDTO updateTask(Long id, TaskUpdateDTO taskUpdateDTO, String ifMatch);
 
     /**
      * Update task status
@@ -50,6 +121,22 @@ public interface TaskService {
      */
     TaskDTO updateTaskStatus(Long id, Task.TaskStatus status);
 
+    /**
+     * Update several tasks in one transaction
+     *
+     * @param tasks Task update data, each with the ID of the task to update
+     * @return Result for each item, in request order
+     */
+    List<TaskBatchResultDTO> updateTasks(List<TaskBatchUpdateDTO> tasks);
+
+    /**
+     * Update the status of several tasks in one transaction
+     *
+     * @param changes Task IDs with their new status
+     * @return Result for each item, in request order
+     */
+    List<TaskBatchResultDTO> updateTaskStatuses(List<TaskStatusChangeDTO> changes);
+
     /**
      * Delete task
      *
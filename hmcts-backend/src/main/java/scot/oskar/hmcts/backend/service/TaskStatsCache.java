@@ -0,0 +1,49 @@
+package scot.oskar.hmcts.backend.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import scot.oskar.hmcts.backend.data.dto.TaskStatsDTO;
+import scot.oskar.hmcts.backend.repository.TaskStatsRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Serves dashboard statistics from memory, recomputing them in the background at most once per refresh interval.
+ *
+ * <p>Once warm, a request never waits on the aggregate query: a stale entry is returned while a single
+ * reload runs. Entries older than the maximum age are dropped, so an idle instance never serves
+ * statistics that are badly out of date.
+ */
+@Component
+public class TaskStatsCache implements MeterBinder {
+
+    private static final String KEY = "all";
+
+    private final LoadingCache<String, TaskStatsDTO> cache;
+
+    public TaskStatsCache(
+            TaskStatsRepository taskStatsRepository,
+            @Value("${tasks.stats.refresh:5s}") Duration refresh,
+            @Value("${tasks.stats.max-age:1m}") Duration maxAge) {
+        this.cache = Caffeine.newBuilder()
+                .refreshAfterWrite(refresh)
+                .expireAfterWrite(maxAge)
+                .recordStats()
+                .build(key -> taskStatsRepository.loadStats(LocalDateTime.now()));
+    }
+
+    public TaskStatsDTO get() {
+        return cache.get(KEY);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "task-stats");
+    }
+}
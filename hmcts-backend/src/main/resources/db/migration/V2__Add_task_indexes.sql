@@ -0,0 +1,21 @@
+-- Store status as a compact code instead of free text.
+-- Codes must stay in line with Task.TaskStatus: 0 PENDING, 1 IN_PROGRESS, 2 COMPLETED, 3 CANCELLED
+ALTER TABLE tasks
+    ALTER COLUMN status TYPE SMALLINT USING CASE status
+        WHEN 'PENDING' THEN 0
+        WHEN 'IN_PROGRESS' THEN 1
+        WHEN 'COMPLETED' THEN 2
+        WHEN 'CANCELLED' THEN 3
+    END;
+
+ALTER TABLE tasks
+    ADD CONSTRAINT ck_tasks_status CHECK (status BETWEEN 0 AND 3);
+
+-- findByStatus, findByStatusAndDueDateBefore and status-filtered pages ordered by (due_date, id)
+CREATE INDEX idx_tasks_status_due_date ON tasks (status, due_date, id);
+
+-- findByDueDateBefore and unfiltered pages ordered by (due_date, id)
+CREATE INDEX idx_tasks_due_date ON tasks (due_date, id);
+
+-- Open tasks are the small, hot subset queried for overdue work
+CREATE INDEX idx_tasks_open_due_date ON tasks (due_date, id) WHERE status IN (0, 1);
@@ -0,0 +1,9 @@
+-- Replace the identity column with a sequence Hibernate can allocate from in blocks of 50,
+-- which lets inserts be batched. Must match allocationSize on Task.id.
+CREATE SEQUENCE tasks_seq INCREMENT BY 50;
+
+SELECT setval('tasks_seq', (SELECT COALESCE(MAX(id), 0) FROM tasks) + 50);
+
+ALTER TABLE tasks ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE tasks ALTER COLUMN id SET DEFAULT nextval('tasks_seq');
+ALTER SEQUENCE tasks_seq OWNED BY tasks.id;
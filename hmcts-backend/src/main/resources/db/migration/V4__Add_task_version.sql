@@ -0,0 +1,2 @@
+-- Optimistic locking: every write increments the version and is rejected if it has moved on since the read
+ALTER TABLE tasks ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
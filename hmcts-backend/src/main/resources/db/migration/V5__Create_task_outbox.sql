@@ -0,0 +1,13 @@
+-- Task change events, written in the same transaction as the change and removed once relayed
+CREATE TABLE task_outbox
+(
+    id         BIGINT GENERATED ALWAYS AS IDENTITY NOT NULL,
+    task_id    BIGINT                              NOT NULL,
+    event_type VARCHAR(20)                         NOT NULL,
+    payload    TEXT                                NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE            NOT NULL DEFAULT now(),
+    CONSTRAINT pk_task_outbox PRIMARY KEY (id)
+);
+
+-- Every row is deleted soon after insert, so vacuum well before the default 20% of dead rows
+ALTER TABLE task_outbox SET (autovacuum_vacuum_scale_factor = 0.01, autovacuum_vacuum_threshold = 1000);
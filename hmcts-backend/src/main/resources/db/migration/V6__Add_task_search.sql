@@ -0,0 +1,11 @@
+-- Descriptions are no longer limited to 255 characters. Widening to TEXT does not rewrite the table
+ALTER TABLE tasks ALTER COLUMN description TYPE TEXT;
+
+-- Full-text search over title and description, with title matches ranked higher.
+-- Adding a stored generated column rewrites the table once, so run this outside peak hours on large tables
+ALTER TABLE tasks ADD COLUMN search_vector TSVECTOR GENERATED ALWAYS AS (
+    setweight(to_tsvector('english', coalesce(title, '')), 'A') ||
+    setweight(to_tsvector('english', coalesce(description, '')), 'B')
+) STORED;
+
+CREATE INDEX idx_tasks_search ON tasks USING GIN (search_vector);
@@ -0,0 +1,5 @@
+-- Set by the overdue sweeper when an open task passes its due date, cleared if the due date moves into the future
+ALTER TABLE tasks ADD COLUMN overdue_at TIMESTAMP WITHOUT TIME ZONE;
+
+-- Open tasks the sweeper has not flagged yet, so each sweep only reads the tasks it still has to change
+CREATE INDEX idx_tasks_overdue_unflagged ON tasks (due_date, id) WHERE status IN (0, 1) AND overdue_at IS NULL;
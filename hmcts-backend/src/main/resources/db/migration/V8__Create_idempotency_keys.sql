@@ -0,0 +1,14 @@
+-- Responses to create requests sent with an Idempotency-Key, written in the same transaction as the
+-- tasks they created so a retried request can be answered without inserting again
+CREATE TABLE idempotency_keys
+(
+    idempotency_key VARCHAR(255)             NOT NULL,
+    request_hash    CHAR(64)                 NOT NULL,
+    response        TEXT                     NOT NULL,
+    created_at      TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    expires_at      TIMESTAMP WITH TIME ZONE NOT NULL,
+    CONSTRAINT pk_idempotency_keys PRIMARY KEY (idempotency_key)
+);
+
+-- Expired keys are purged in chunks, oldest first
+CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
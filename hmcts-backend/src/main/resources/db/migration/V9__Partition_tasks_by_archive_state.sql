@@ -0,0 +1,58 @@
+-- Split tasks into a hot partition for live work and an archive partition for closed tasks that TaskArchiver has
+-- moved out of the way. Queries that filter on NOT archived only touch the hot partition and its indexes.
+--
+-- The existing table becomes the hot partition as it is, so no rows are copied. Replacing its primary key and
+-- building the archiver's index still read the whole table, so run this outside peak hours on large tables.
+
+ALTER TABLE tasks RENAME TO tasks_hot;
+ALTER TABLE tasks_hot ADD COLUMN archived BOOLEAN NOT NULL DEFAULT false;
+
+-- The primary key of a partitioned table has to include the partition key. IDs still come from tasks_seq,
+-- and the archiver moves a row rather than copying it, so an ID is never in both partitions
+ALTER TABLE tasks_hot DROP CONSTRAINT pk_tasks;
+ALTER TABLE tasks_hot ADD CONSTRAINT pk_tasks_hot PRIMARY KEY (id, archived);
+
+-- The parent's indexes below take the original names; the hot partition's existing indexes are attached to them
+ALTER INDEX idx_tasks_status_due_date RENAME TO idx_tasks_hot_status_due_date;
+ALTER INDEX idx_tasks_due_date RENAME TO idx_tasks_hot_due_date;
+ALTER INDEX idx_tasks_open_due_date RENAME TO idx_tasks_hot_open_due_date;
+ALTER INDEX idx_tasks_overdue_unflagged RENAME TO idx_tasks_hot_overdue_unflagged;
+ALTER INDEX idx_tasks_search RENAME TO idx_tasks_hot_search;
+
+CREATE TABLE tasks
+(
+    id            BIGINT                      NOT NULL DEFAULT nextval('tasks_seq'),
+    title         VARCHAR(255)                NOT NULL,
+    description   TEXT,
+    status        SMALLINT                    NOT NULL,
+    due_date      TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    created_at    TIMESTAMP WITHOUT TIME ZONE,
+    updated_at    TIMESTAMP WITHOUT TIME ZONE,
+    version       BIGINT                      NOT NULL DEFAULT 0,
+    search_vector TSVECTOR GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(description, '')), 'B')
+    ) STORED,
+    overdue_at    TIMESTAMP WITHOUT TIME ZONE,
+    archived      BOOLEAN                     NOT NULL DEFAULT false,
+    CONSTRAINT pk_tasks PRIMARY KEY (id, archived),
+    CONSTRAINT ck_tasks_status CHECK (status BETWEEN 0 AND 3)
+) PARTITION BY LIST (archived);
+
+ALTER TABLE tasks ATTACH PARTITION tasks_hot FOR VALUES IN (false);
+CREATE TABLE tasks_archive PARTITION OF tasks FOR VALUES IN (true);
+
+ALTER SEQUENCE tasks_seq OWNED BY tasks.id;
+
+-- Same definitions as before, now created on both partitions
+CREATE INDEX idx_tasks_status_due_date ON tasks (status, due_date, id);
+CREATE INDEX idx_tasks_due_date ON tasks (due_date, id);
+CREATE INDEX idx_tasks_open_due_date ON tasks (due_date, id) WHERE status IN (0, 1);
+CREATE INDEX idx_tasks_overdue_unflagged ON tasks (due_date, id) WHERE status IN (0, 1) AND overdue_at IS NULL;
+CREATE INDEX idx_tasks_search ON tasks USING GIN (search_vector);
+
+-- Completed and cancelled tasks still in the hot partition, least recently modified first, for the archiver
+CREATE INDEX idx_tasks_closed_updated_at ON tasks (updated_at, id) WHERE status IN (2, 3) AND NOT archived;
+
+-- The archive is only appended to, so vacuum it for visibility after inserts rather than for dead rows
+ALTER TABLE tasks_archive SET (autovacuum_vacuum_insert_scale_factor = 0.05);
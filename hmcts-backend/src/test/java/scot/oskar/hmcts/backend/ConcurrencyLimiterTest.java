@@ -0,0 +1,51 @@
+package scot.oskar.hmcts.backend;
+
+import org.junit.jupiter.api.Test;
+import scot.oskar.hmcts.backend.config.ConcurrencyLimiter;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimiterTest {
+
+    @Test
+    void tryAcquire_ShouldQueueForFreedPermit() throws InterruptedException {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, Duration.ofSeconds(5), Duration.ofSeconds(5), Duration.ofMinutes(1));
+        assertThat(limiter.tryAcquire()).isTrue();
+
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            limiter.release();
+        });
+        releaser.start();
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.isShedding()).isFalse();
+        releaser.join();
+    }
+
+    @Test
+    void tryAcquire_ShouldShedInsteadOfQueueing_AfterSlowQueue() throws InterruptedException {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, Duration.ofMillis(50), Duration.ofMillis(10), Duration.ofMinutes(1));
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        // Queues for the full 50ms, which is over the 10ms target
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.isShedding()).isTrue();
+
+        long start = System.nanoTime();
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.MILLISECONDS.toNanos(50));
+
+        // Shedding only refuses requests that would have to wait
+        limiter.release();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+    }
+}
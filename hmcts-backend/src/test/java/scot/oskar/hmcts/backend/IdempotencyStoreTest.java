@@ -0,0 +1,156 @@
+package scot.oskar.hmcts.backend;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import scot.oskar.hmcts.backend.data.dto.TaskCreateDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskDTO;
+import scot.oskar.hmcts.backend.data.model.Task;
+import scot.oskar.hmcts.backend.exception.IdempotencyKeyMismatchException;
+import scot.oskar.hmcts.backend.repository.IdempotencyKeyRepository;
+import scot.oskar.hmcts.backend.repository.TaskRepository;
+import scot.oskar.hmcts.backend.service.IdempotencyStore;
+import scot.oskar.hmcts.backend.service.TaskService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyStoreTest extends AbstractIntegrationTest {
+
+    private static final TypeReference<TaskDTO> TASK_TYPE = new TypeReference<>() {
+    };
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TaskCreateDTO request;
+
+    @BeforeEach
+    void setUp() {
+        taskRepository.deleteAll();
+        request = TaskCreateDTO.builder()
+                .title("Intake task")
+                .status(Task.TaskStatus.PENDING)
+                .dueDate(LocalDateTime.now().plusDays(1))
+                .build();
+    }
+
+    @Test
+    void execute_ShouldCreateOnce_WhenKeyIsRepeated() {
+        String key = UUID.randomUUID().toString();
+
+        IdempotencyStore.Outcome<TaskDTO> first = create(idempotencyStore, key);
+        IdempotencyStore.Outcome<TaskDTO> retry = create(idempotencyStore, key);
+
+        assertThat(first.replayed()).isFalse();
+        assertThat(retry.replayed()).isTrue();
+        assertThat(retry.response().getId()).isEqualTo(first.response().getId());
+        assertThat(taskRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_ShouldReplayFromDatabase_WhenKeyWasUsedOnAnotherInstance() {
+        String key = UUID.randomUUID().toString();
+        TaskDTO created = create(idempotencyStore, key).response();
+
+        // A second store has an empty memory tier, like another instance behind the load balancer
+        IdempotencyStore otherInstance = new IdempotencyStore(
+                idempotencyKeyRepository, transactionTemplate, objectMapper, Duration.ofHours(1), 100, 100);
+        IdempotencyStore.Outcome<TaskDTO> retry = otherInstance.execute(key, "create-task", request, TASK_TYPE, () -> {
+            throw new AssertionError("Replay must not create the task again");
+        });
+
+        assertThat(retry.replayed()).isTrue();
+        assertThat(retry.response().getId()).isEqualTo(created.getId());
+        assertThat(retry.response().getTitle()).isEqualTo("Intake task");
+        assertThat(taskRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_ShouldStoreNothing_WhenActionFails() {
+        String key = UUID.randomUUID().toString();
+
+        assertThatThrownBy(() -> idempotencyStore.execute(key, "create-task", request, TASK_TYPE, () -> {
+            taskService.createTask(request);
+            throw new IllegalStateException("Failed after insert");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(taskRepository.count()).isZero();
+        assertThat(idempotencyKeyRepository.find(key)).isEmpty();
+        assertThat(create(idempotencyStore, key).replayed()).isFalse();
+    }
+
+    @Test
+    void execute_ShouldRefuseKey_WhenReusedForDifferentRequest() {
+        String key = UUID.randomUUID().toString();
+        create(idempotencyStore, key);
+        request.setTitle("Another task");
+
+        assertThatThrownBy(() -> create(idempotencyStore, key))
+                .isInstanceOf(IdempotencyKeyMismatchException.class);
+        assertThat(taskRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_ShouldCreate_WhenKeyExpiredButNotPurged() {
+        String key = UUID.randomUUID().toString();
+        idempotencyKeyRepository.insert(key, new IdempotencyKeyRepository.StoredResponse(
+                "earlier-request", "{}", OffsetDateTime.now().minusMinutes(1)));
+
+        IdempotencyStore.Outcome<TaskDTO> outcome = create(idempotencyStore, key);
+
+        assertThat(outcome.replayed()).isFalse();
+        assertThat(taskRepository.count()).isEqualTo(1);
+        assertThat(create(idempotencyStore, key).response().getId()).isEqualTo(outcome.response().getId());
+    }
+
+    @Test
+    void execute_ShouldStopReplaying_WhenStoredKeyExpires() throws InterruptedException {
+        String key = UUID.randomUUID().toString();
+        IdempotencyStore store = new IdempotencyStore(
+                idempotencyKeyRepository, transactionTemplate, objectMapper, Duration.ofHours(1), 100, 100);
+        TaskDTO created = create(store, key).response();
+        jdbcTemplate.update("UPDATE idempotency_keys SET expires_at = now() + interval '1 second' WHERE idempotency_key = ?", key);
+
+        // Loaded into memory by another instance shortly before the key expires
+        IdempotencyStore otherInstance = new IdempotencyStore(
+                idempotencyKeyRepository, transactionTemplate, objectMapper, Duration.ofHours(1), 100, 100);
+        assertThat(create(otherInstance, key).replayed()).isTrue();
+        Thread.sleep(1500);
+
+        IdempotencyStore.Outcome<TaskDTO> afterExpiry = create(otherInstance, key);
+        assertThat(afterExpiry.replayed()).isFalse();
+        assertThat(afterExpiry.response().getId()).isNotEqualTo(created.getId());
+    }
+
+    private IdempotencyStore.Outcome<TaskDTO> create(IdempotencyStore store, String key) {
+        return store.execute(key, "create-task", request, TASK_TYPE, () -> taskService.createTask(request));
+    }
+}
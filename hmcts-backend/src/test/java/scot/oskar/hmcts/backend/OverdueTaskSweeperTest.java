@@ -0,0 +1,97 @@
+package scot.oskar.hmcts.backend;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import scot.oskar.hmcts.backend.data.dto.TaskDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskUpdateDTO;
+import scot.oskar.hmcts.backend.data.model.Task;
+import scot.oskar.hmcts.backend.repository.TaskRepository;
+import scot.oskar.hmcts.backend.service.OverdueTaskSweeper;
+import scot.oskar.hmcts.backend.service.TaskService;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A small chunk size so a sweep spans several chunks
+@TestPropertySource(properties = {"tasks.overdue.chunk-size=2", "tasks.overdue.pause=0ms"})
+class OverdueTaskSweeperTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private OverdueTaskSweeper sweeper;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        taskRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM task_outbox");
+        now = LocalDateTime.now();
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskRepository.deleteAll();
+    }
+
+    @Test
+    void sweep_ShouldFlagOnlyOpenOverdueTasks() {
+        for (int i = 1; i <= 5; i++) {
+            save(Task.TaskStatus.PENDING, now.minusHours(i));
+        }
+        Task inProgress = save(Task.TaskStatus.IN_PROGRESS, now.minusDays(1));
+        Task completed = save(Task.TaskStatus.COMPLETED, now.minusDays(1));
+        Task upcoming = save(Task.TaskStatus.PENDING, now.plusDays(1));
+
+        assertThat(sweeper.flagOverdueTasks()).isEqualTo(6);
+
+        assertThat(taskRepository.findById(inProgress.getId()).orElseThrow().getOverdueAt()).isNotNull();
+        assertThat(taskRepository.findById(completed.getId()).orElseThrow().getOverdueAt()).isNull();
+        assertThat(taskRepository.findById(upcoming.getId()).orElseThrow().getOverdueAt()).isNull();
+        // Each flagged task bumps its version and is announced through the outbox
+        assertThat(taskRepository.findById(inProgress.getId()).orElseThrow().getVersion())
+                .isEqualTo(inProgress.getVersion() + 1);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM task_outbox WHERE event_type = 'OVERDUE'", Integer.class)).isEqualTo(6);
+
+        // Already flagged tasks are not touched again
+        assertThat(sweeper.flagOverdueTasks()).isZero();
+    }
+
+    @Test
+    void movingDueDateIntoFuture_ShouldClearFlag() {
+        Task task = save(Task.TaskStatus.PENDING, now.minusDays(1));
+        sweeper.flagOverdueTasks();
+        TaskDTO flagged = taskService.getTaskById(task.getId());
+        assertThat(flagged.getOverdueAt()).isNotNull();
+
+        TaskDTO updated = taskService.updateTask(task.getId(), TaskUpdateDTO.builder()
+                .status(Task.TaskStatus.PENDING)
+                .dueDate(now.plusDays(2))
+                .version(flagged.getVersion())
+                .build());
+
+        assertThat(updated.getOverdueAt()).isNull();
+    }
+
+    private Task save(Task.TaskStatus status, LocalDateTime dueDate) {
+        return taskRepository.save(Task.builder()
+                .title("Task due " + dueDate)
+                .status(status)
+                .dueDate(dueDate)
+                .build());
+    }
+}
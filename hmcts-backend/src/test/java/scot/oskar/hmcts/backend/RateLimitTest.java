@@ -0,0 +1,108 @@
+package scot.oskar.hmcts.backend;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import scot.oskar.hmcts.backend.data.dto.TaskCreateDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskPageDTO;
+import scot.oskar.hmcts.backend.data.model.Task;
+import scot.oskar.hmcts.backend.data.query.TaskFilter;
+import scot.oskar.hmcts.backend.service.TaskService;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Two reads per client, refilled too slowly to matter within a test. Each test uses its own API key
+@TestPropertySource(properties = {
+        "tasks.rate-limit.enabled=true",
+        "tasks.rate-limit.api-keys=client-a,client-b,client-c,client-d",
+        "tasks.rate-limit.read.burst=2",
+        "tasks.rate-limit.read.requests-per-second=0.01"
+})
+class RateLimitTest extends AbstractControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoBean
+    private TaskService taskService;
+
+    @BeforeEach
+    void setUp() {
+        when(taskService.getTasks(any(TaskFilter.class), any(), any()))
+                .thenReturn(TaskPageDTO.builder().items(Collections.emptyList()).build());
+    }
+
+    @Test
+    void reads_ShouldReturn429WithRetryAfter_WhenBucketIsEmpty() throws Exception {
+        listTasks("client-a").andExpect(status().isOk());
+        listTasks("client-a").andExpect(status().isOk());
+
+        listTasks("client-a")
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+                .andExpect(jsonPath("$.status", is("TOO_MANY_REQUESTS")))
+                .andExpect(jsonPath("$.message", is("Rate limit exceeded, retry later")));
+    }
+
+    @Test
+    void clients_ShouldHaveSeparateBuckets() throws Exception {
+        listTasks("client-b").andExpect(status().isOk());
+        listTasks("client-b").andExpect(status().isOk());
+        listTasks("client-b").andExpect(status().isTooManyRequests());
+
+        listTasks("client-c").andExpect(status().isOk());
+    }
+
+    @Test
+    void unknownKeys_ShouldShareTheRemoteAddressBucket() throws Exception {
+        listTasks("rotated-1").andExpect(status().isOk());
+        listTasks("rotated-2").andExpect(status().isOk());
+
+        listTasks("rotated-3").andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    void writes_ShouldStillBeAdmitted_WhenReadsAreLimited() throws Exception {
+        LocalDateTime dueDate = LocalDateTime.now().plusDays(1);
+        when(taskService.createTask(any(TaskCreateDTO.class)))
+                .thenReturn(TaskDTO.builder().id(1L).title("New Task").status(Task.TaskStatus.PENDING).dueDate(dueDate).build());
+        TaskCreateDTO task = TaskCreateDTO.builder()
+                .title("New Task")
+                .status(Task.TaskStatus.PENDING)
+                .dueDate(dueDate)
+                .build();
+
+        listTasks("client-d").andExpect(status().isOk());
+        listTasks("client-d").andExpect(status().isOk());
+        listTasks("client-d").andExpect(status().isTooManyRequests());
+
+        mockMvc.perform(post("/api/tasks")
+                        .header("X-API-Key", "client-d")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(task)))
+                .andExpect(status().isCreated());
+    }
+
+    private ResultActions listTasks(String apiKey) throws Exception {
+        return mockMvc.perform(get("/api/tasks").header("X-API-Key", apiKey));
+    }
+}
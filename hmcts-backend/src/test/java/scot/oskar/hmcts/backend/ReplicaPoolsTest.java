@@ -0,0 +1,93 @@
+package scot.oskar.hmcts.backend;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import scot.oskar.hmcts.backend.config.ReplicaPools;
+import scot.oskar.hmcts.backend.config.ReplicaRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ReplicaPoolsTest {
+
+    private DataSource primary;
+    private DataSource replica;
+    private Connection primaryConnection;
+    private Connection replicaConnection;
+    private ResultSet lag;
+    private ReplicaPools replicaPools;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        primary = mock(DataSource.class);
+        primaryConnection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        replica = mock(DataSource.class);
+        replicaConnection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        lag = mock(ResultSet.class);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        when(replicaConnection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(lag);
+        when(lag.next()).thenReturn(true);
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", replica);
+        replicaPools = new ReplicaPools(replicas, Duration.ofSeconds(5));
+    }
+
+    @Test
+    void getConnection_ShouldUseReplica_WhenHealthy() throws SQLException {
+        when(lag.getDouble(1)).thenReturn(0.5);
+        replicaPools.checkHealth();
+
+        assertThat(replicaPools.getConnection(primary)).isSameAs(replicaConnection);
+    }
+
+    @Test
+    void getConnection_ShouldFallBackToPrimary_WhenReplicaLagsTooFar() throws SQLException {
+        when(lag.getDouble(1)).thenReturn(30.0);
+        replicaPools.checkHealth();
+
+        assertThat(replicaPools.getConnection(primary)).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void getConnection_ShouldFallBackToPrimary_UntilUnreachableReplicaRecovers() throws SQLException {
+        when(lag.getDouble(1)).thenReturn(0.0);
+        replicaPools.checkHealth();
+        when(replica.getConnection()).thenThrow(new SQLTransientConnectionException("down"));
+
+        assertThat(replicaPools.getConnection(primary)).isSameAs(primaryConnection);
+        assertThat(replicaPools.getConnection(primary)).isSameAs(primaryConnection);
+        // Taken out of rotation after the first failure rather than tried on every read
+        verify(replica, times(2)).getConnection();
+    }
+
+    @Test
+    void getConnection_ShouldUsePrimary_WhenThreadPinnedAfterWrite() throws SQLException {
+        when(lag.getDouble(1)).thenReturn(0.0);
+        replicaPools.checkHealth();
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replicaPools);
+
+        ReplicaRoutingDataSource.requirePrimary();
+        try {
+            assertThat(routing.getConnection()).isSameAs(primaryConnection);
+        } finally {
+            ReplicaRoutingDataSource.clearPrimaryRequired();
+        }
+        assertThat(routing.getConnection()).isSameAs(replicaConnection);
+    }
+}
@@ -0,0 +1,57 @@
+package scot.oskar.hmcts.backend;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import scot.oskar.hmcts.backend.config.ReplicaRoutingDataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The test database stands in for the replica, told apart by the application name on its connections
+class ReplicaRoutingTest extends AbstractIntegrationTest {
+
+    private static final String REPLICA = "replica-stand-in";
+
+    @DynamicPropertySource
+    static void replicaProperties(DynamicPropertyRegistry registry) {
+        registry.add("tasks.datasource.replica.urls",
+                () -> TestContainersSingleton.getPostgresContainer().getJdbcUrl() + "&ApplicationName=" + REPLICA);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void readOnlyTransactions_ShouldUseReplica() {
+        assertThat(applicationName(true)).isEqualTo(REPLICA);
+    }
+
+    @Test
+    void writeTransactions_ShouldUsePrimary() {
+        assertThat(applicationName(false)).isNotEqualTo(REPLICA);
+    }
+
+    @Test
+    void readOnlyTransactions_ShouldUsePrimary_WhenPinnedAfterWrite() {
+        ReplicaRoutingDataSource.requirePrimary();
+        try {
+            assertThat(applicationName(true)).isNotEqualTo(REPLICA);
+        } finally {
+            ReplicaRoutingDataSource.clearPrimaryRequired();
+        }
+    }
+
+    private String applicationName(boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status ->
+                jdbcTemplate.queryForObject("SELECT current_setting('application_name')", String.class));
+    }
+}
@@ -0,0 +1,85 @@
+package scot.oskar.hmcts.backend;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import scot.oskar.hmcts.backend.config.SlowQueryLoggingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class SlowQueryLoggingDataSourceTest {
+
+    private Connection connection;
+    private final List<String> logged = new ArrayList<>();
+    private final List<Long> rows = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        connection = mock(Connection.class);
+    }
+
+    private DataSource wrap(Duration threshold) throws SQLException {
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenReturn(connection);
+        return new SlowQueryLoggingDataSource(target, threshold) {
+            @Override
+            protected void onSlowQuery(String sql, long durationNanos, long rowCount) {
+                logged.add(sql);
+                rows.add(rowCount);
+            }
+        };
+    }
+
+    @Test
+    void query_ShouldBeReportedWithRowCount_WhenResultSetClosed() throws SQLException {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(connection.prepareStatement("SELECT * FROM tasks")).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, false);
+
+        try (Connection wrapped = wrap(Duration.ZERO).getConnection();
+             PreparedStatement ps = wrapped.prepareStatement("SELECT * FROM tasks");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                assertThat(logged).isEmpty();
+            }
+        }
+
+        assertThat(logged).containsExactly("SELECT * FROM tasks");
+        assertThat(rows).containsExactly(2L);
+        verify(resultSet).close();
+    }
+
+    @Test
+    void update_ShouldBeReportedWithUpdateCount() throws SQLException {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(connection.prepareStatement("DELETE FROM tasks")).thenReturn(statement);
+        when(statement.executeUpdate()).thenReturn(3);
+
+        int updated = wrap(Duration.ZERO).getConnection().prepareStatement("DELETE FROM tasks").executeUpdate();
+
+        assertThat(updated).isEqualTo(3);
+        assertThat(rows).containsExactly(3L);
+    }
+
+    @Test
+    void fastStatement_ShouldNotBeReported() throws SQLException {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(connection.prepareStatement("DELETE FROM tasks")).thenReturn(statement);
+        when(statement.executeUpdate()).thenReturn(1);
+
+        wrap(Duration.ofMinutes(1)).getConnection().prepareStatement("DELETE FROM tasks").executeUpdate();
+
+        assertThat(logged).isEmpty();
+    }
+}
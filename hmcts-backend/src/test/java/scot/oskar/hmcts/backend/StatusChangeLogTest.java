@@ -0,0 +1,68 @@
+package scot.oskar.hmcts.backend;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import scot.oskar.hmcts.backend.data.model.Task;
+import scot.oskar.hmcts.backend.service.PendingStatusChanges.Change;
+import scot.oskar.hmcts.backend.service.StatusChangeLog;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatusChangeLogTest {
+
+    @TempDir
+    Path directory;
+
+    private final LocalDateTime now = LocalDateTime.of(2025, 6, 1, 10, 0, 0, 123456000);
+
+    @Test
+    void recover_ShouldReturnChangesFromEverySegmentInOrder() throws IOException {
+        try (StatusChangeLog log = new StatusChangeLog(directory)) {
+            log.append(new Change(1L, Task.TaskStatus.IN_PROGRESS, now));
+            log.seal();
+            log.append(new Change(1L, Task.TaskStatus.COMPLETED, now.plusSeconds(1)));
+            log.append(new Change(2L, Task.TaskStatus.CANCELLED, now.plusSeconds(2)));
+        }
+
+        assertThat(new StatusChangeLog(directory).recover()).containsExactly(
+                new Change(1L, Task.TaskStatus.IN_PROGRESS, now),
+                new Change(1L, Task.TaskStatus.COMPLETED, now.plusSeconds(1)),
+                new Change(2L, Task.TaskStatus.CANCELLED, now.plusSeconds(2)));
+    }
+
+    @Test
+    void recover_ShouldSkipTornLastLine() throws IOException {
+        try (StatusChangeLog log = new StatusChangeLog(directory)) {
+            log.append(new Change(1L, Task.TaskStatus.COMPLETED, now));
+        }
+        Path segment = segments().findFirst().orElseThrow();
+        Files.writeString(segment, "{\"id\":2,\"sta", StandardOpenOption.APPEND);
+
+        assertThat(new StatusChangeLog(directory).recover())
+                .containsExactly(new Change(1L, Task.TaskStatus.COMPLETED, now));
+    }
+
+    @Test
+    void deleteSealed_ShouldKeepCurrentSegment() throws IOException {
+        try (StatusChangeLog log = new StatusChangeLog(directory)) {
+            log.append(new Change(1L, Task.TaskStatus.COMPLETED, now));
+            log.seal();
+            log.append(new Change(2L, Task.TaskStatus.COMPLETED, now));
+
+            log.deleteSealed();
+
+            assertThat(log.recover()).containsExactly(new Change(2L, Task.TaskStatus.COMPLETED, now));
+        }
+    }
+
+    private Stream<Path> segments() throws IOException {
+        return Files.list(directory);
+    }
+}
@@ -0,0 +1,163 @@
+package scot.oskar.hmcts.backend;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import scot.oskar.hmcts.backend.data.dto.TaskDTO;
+import scot.oskar.hmcts.backend.data.model.Task;
+import scot.oskar.hmcts.backend.repository.TaskRepository;
+import scot.oskar.hmcts.backend.service.OverdueTaskSweeper;
+import scot.oskar.hmcts.backend.service.StatusWriteBehind;
+import scot.oskar.hmcts.backend.service.TaskService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatusWriteBehindTest extends AbstractIntegrationTest {
+
+    // Flushes are driven by the tests
+    @DynamicPropertySource
+    static void writeBehindProperties(DynamicPropertyRegistry registry) {
+        registry.add("tasks.status-write-behind.enabled", () -> "true");
+        registry.add("tasks.status-write-behind.flush-interval", () -> "1h");
+        registry.add("tasks.status-write-behind.log-dir", () -> {
+            try {
+                return Files.createTempDirectory("status-changes").toString();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+    }
+
+    @Autowired
+    private StatusWriteBehind writeBehind;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private OverdueTaskSweeper overdueTaskSweeper;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Task task;
+
+    @BeforeEach
+    void setUp() {
+        taskRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM task_outbox");
+        task = taskRepository.save(Task.builder()
+                .title("Review bundle")
+                .status(Task.TaskStatus.PENDING)
+                .dueDate(LocalDateTime.now().plusDays(1))
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        writeBehind.flush();
+        taskRepository.deleteAll();
+    }
+
+    @Test
+    void submit_ShouldBeVisibleToReadsBeforeFlush_AndCoalesceOnFlush() {
+        writeBehind.submit(task.getId(), Task.TaskStatus.IN_PROGRESS);
+        writeBehind.submit(task.getId(), Task.TaskStatus.PENDING);
+        TaskDTO accepted = writeBehind.submit(task.getId(), Task.TaskStatus.COMPLETED).orElseThrow();
+
+        assertThat(accepted.getStatus()).isEqualTo(Task.TaskStatus.COMPLETED);
+        assertThat(taskService.getTaskById(task.getId()).getStatus()).isEqualTo(Task.TaskStatus.COMPLETED);
+        assertThat(taskRepository.findById(task.getId()).orElseThrow().getStatus()).isEqualTo(Task.TaskStatus.PENDING);
+
+        assertThat(writeBehind.flush()).isEqualTo(1);
+
+        Task written = taskRepository.findById(task.getId()).orElseThrow();
+        assertThat(written.getStatus()).isEqualTo(Task.TaskStatus.COMPLETED);
+        // Three changes, one write
+        assertThat(written.getVersion()).isEqualTo(task.getVersion() + 1);
+        assertThat(written.getUpdatedAt()).isEqualTo(accepted.getUpdatedAt());
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM task_outbox WHERE event_type = 'STATUS_CHANGED'", Integer.class)).isEqualTo(1);
+        assertThat(taskService.getTaskById(task.getId()).getVersion()).isEqualTo(written.getVersion());
+    }
+
+    @Test
+    void submit_ShouldAcceptConcurrentChanges() throws Exception {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            tasks.add(taskRepository.save(Task.builder()
+                    .title("Concurrent " + i)
+                    .status(Task.TaskStatus.PENDING)
+                    .dueDate(LocalDateTime.now().plusDays(1))
+                    .build()));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        try {
+            List<Future<Optional<TaskDTO>>> accepted = new ArrayList<>();
+            for (Task concurrent : tasks) {
+                accepted.add(executor.submit(() -> writeBehind.submit(concurrent.getId(), Task.TaskStatus.COMPLETED)));
+            }
+            for (Future<Optional<TaskDTO>> future : accepted) {
+                assertThat(future.get(10, TimeUnit.SECONDS)).isPresent();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        tasks.forEach(concurrent -> assertThat(taskService.getTaskById(concurrent.getId()).getStatus())
+                .isEqualTo(Task.TaskStatus.COMPLETED));
+        assertThat(writeBehind.flush()).isEqualTo(tasks.size());
+    }
+
+    @Test
+    void submit_ShouldStayVisible_WhenTaskFlaggedOverdueBeforeFlush() {
+        Task overdue = taskRepository.save(Task.builder()
+                .title("Late bundle")
+                .status(Task.TaskStatus.PENDING)
+                .dueDate(LocalDateTime.now().minusDays(1))
+                .build());
+        TaskDTO accepted = writeBehind.submit(overdue.getId(), Task.TaskStatus.COMPLETED).orElseThrow();
+
+        assertThat(overdueTaskSweeper.flagOverdueTasks()).isEqualTo(1);
+
+        // The flush still writes the change, so reads keep showing it
+        TaskDTO read = taskService.getTaskById(overdue.getId());
+        assertThat(read.getStatus()).isEqualTo(Task.TaskStatus.COMPLETED);
+        assertThat(read.getOverdueAt()).isNotNull();
+        assertThat(taskService.getTaskLastModified(overdue.getId())).isEqualTo(accepted.getUpdatedAt());
+
+        assertThat(writeBehind.flush()).isEqualTo(1);
+        assertThat(taskRepository.findById(overdue.getId()).orElseThrow().getStatus())
+                .isEqualTo(Task.TaskStatus.COMPLETED);
+    }
+
+    @Test
+    void flush_ShouldNotOverwriteLaterSynchronousWrite() {
+        writeBehind.submit(task.getId(), Task.TaskStatus.COMPLETED);
+        taskService.updateTaskStatus(task.getId(), Task.TaskStatus.CANCELLED);
+
+        assertThat(taskService.getTaskById(task.getId()).getStatus()).isEqualTo(Task.TaskStatus.CANCELLED);
+        assertThat(writeBehind.flush()).isZero();
+        assertThat(taskRepository.findById(task.getId()).orElseThrow().getStatus()).isEqualTo(Task.TaskStatus.CANCELLED);
+    }
+}
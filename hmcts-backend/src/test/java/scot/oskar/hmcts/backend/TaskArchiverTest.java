@@ -0,0 +1,127 @@
+package scot.oskar.hmcts.backend;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import scot.oskar.hmcts.backend.data.dto.TaskDTO;
+import scot.oskar.hmcts.backend.data.model.Task;
+import scot.oskar.hmcts.backend.data.query.TaskFilter;
+import scot.oskar.hmcts.backend.exception.ResourceNotFoundException;
+import scot.oskar.hmcts.backend.repository.TaskRepository;
+import scot.oskar.hmcts.backend.service.TaskArchiver;
+import scot.oskar.hmcts.backend.service.TaskService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// A small chunk size so a run spans several chunks
+@TestPropertySource(properties = {"tasks.archive.chunk-size=2", "tasks.archive.pause=0ms"})
+class TaskArchiverTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private TaskArchiver archiver;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        taskRepository.deleteAll();
+        now = LocalDateTime.now();
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskRepository.deleteAll();
+    }
+
+    @Test
+    void archive_ShouldMoveOnlyOldClosedTasks() {
+        for (int i = 0; i < 3; i++) {
+            save(Task.TaskStatus.COMPLETED, now.minusDays(200));
+        }
+        Task cancelled = save(Task.TaskStatus.CANCELLED, now.minusDays(100));
+        Task recentlyCompleted = save(Task.TaskStatus.COMPLETED, now.minusDays(1));
+        Task oldPending = save(Task.TaskStatus.PENDING, now.minusDays(200));
+
+        assertThat(archiver.archiveClosedTasks()).isEqualTo(4);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM tasks_archive", Integer.class)).isEqualTo(4);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM tasks_hot", Integer.class)).isEqualTo(2);
+        assertThat(taskRepository.findDtoById(cancelled.getId())).isEmpty();
+        assertThat(taskRepository.findDtoById(recentlyCompleted.getId())).isPresent();
+        assertThat(taskRepository.findDtoById(oldPending.getId())).isPresent();
+
+        // Nothing left to archive
+        assertThat(archiver.archiveClosedTasks()).isZero();
+    }
+
+    @Test
+    void archivedTasks_ShouldOnlyBeListedWhenIncluded() {
+        Task archived = save(Task.TaskStatus.COMPLETED, now.minusDays(200));
+        Task hot = save(Task.TaskStatus.PENDING, now.plusDays(1));
+        archiver.archiveClosedTasks();
+
+        assertThat(taskService.getTasks(TaskFilter.none(), null, null).getItems())
+                .extracting(TaskDTO::getId)
+                .containsExactly(hot.getId());
+        assertThat(taskService.getTasks(TaskFilter.builder().includeArchived(true).build(), null, null).getItems())
+                .extracting(TaskDTO::getId)
+                .containsExactly(archived.getId(), hot.getId());
+
+        List<TaskDTO> exported = new ArrayList<>();
+        taskService.exportTasks(TaskFilter.builder().includeArchived(true).build(), exported::add);
+        assertThat(exported).extracting(TaskDTO::getId).containsExactlyInAnyOrder(archived.getId(), hot.getId());
+    }
+
+    @Test
+    void archivedTasks_ShouldBeReadOnly() {
+        Task archived = save(Task.TaskStatus.COMPLETED, now.minusDays(200));
+        archiver.archiveClosedTasks();
+
+        assertThatThrownBy(() -> taskService.updateTaskStatus(archived.getId(), Task.TaskStatus.PENDING))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> taskService.deleteTask(archived.getId()))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM tasks_archive", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void archivedTasks_ShouldRejectWritesReadBeforeArchiving() {
+        Task task = save(Task.TaskStatus.COMPLETED, now.minusDays(200));
+        archiver.archiveClosedTasks();
+
+        task.setTitle("Changed after archiving");
+        assertThatThrownBy(() -> taskRepository.save(task))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(jdbcTemplate.queryForObject("SELECT title FROM tasks_archive WHERE id = ?", String.class, task.getId()))
+                .isNotEqualTo("Changed after archiving");
+    }
+
+    // Saved with the given due date, then last modified that long ago as well
+    private Task save(Task.TaskStatus status, LocalDateTime dueDate) {
+        Task task = taskRepository.save(Task.builder()
+                .title("Task due " + dueDate)
+                .status(status)
+                .dueDate(dueDate)
+                .build());
+        jdbcTemplate.update("UPDATE tasks SET updated_at = ? WHERE id = ?", dueDate, task.getId());
+        return task;
+    }
+}
@@ -0,0 +1,214 @@
+package scot.oskar.hmcts.backend;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import scot.oskar.hmcts.backend.data.dto.TaskDTO;
+import scot.oskar.hmcts.backend.data.model.Task;
+import scot.oskar.hmcts.backend.event.TaskChangedEvent;
+import scot.oskar.hmcts.backend.service.TaskChangeFeed;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class TaskChangeFeedTest extends AbstractControllerTest {
+
+    private static final Pattern DELETED_ID = Pattern.compile("id:[^-\\s]+-(\\d+)\\nevent:deleted");
+    private static final Pattern EVENT_ID = Pattern.compile("id:(\\S+)\\nevent:created\\ndata:\\{[^\\n]*\"taskId\":9001");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TaskChangeFeed taskChangeFeed;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void stream_ShouldPushCommittedChanges() throws Exception {
+        MvcResult stream = openStream(null);
+
+        taskChangeFeed.onTaskChanged(TaskChangedEvent.created(task(9001L)));
+        taskChangeFeed.onTaskChanged(TaskChangedEvent.deleted(9002L));
+
+        String body = awaitContent(stream, "\"taskId\":9002");
+        assertThat(body).contains("event:created", "event:deleted", "\"title\":\"Task 9001\"");
+    }
+
+    @Test
+    void stream_ShouldReplayEventsAfterLastEventId() throws Exception {
+        MvcResult first = openStream(null);
+        taskChangeFeed.onTaskChanged(TaskChangedEvent.created(task(9001L)));
+        taskChangeFeed.onTaskChanged(TaskChangedEvent.created(task(9003L)));
+        Matcher matcher = EVENT_ID.matcher(awaitContent(first, "\"taskId\":9003"));
+        assertThat(matcher.find()).isTrue();
+
+        MvcResult resumed = openStream(matcher.group(1));
+
+        String body = awaitContent(resumed, "\"taskId\":9003");
+        assertThat(body).doesNotContain("\"taskId\":9001");
+    }
+
+    @Test
+    void stream_ShouldDeliverEveryEvent_WhenPublishedConcurrently() throws Exception {
+        MvcResult stream = openStream(null);
+        int publishers = 8;
+        int eventsEach = 100;
+
+        ExecutorService executor = Executors.newFixedThreadPool(publishers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int p = 0; p < publishers; p++) {
+            long firstId = 20_000L + p * eventsEach;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (long id = firstId; id < firstId + eventsEach; id++) {
+                    taskChangeFeed.onTaskChanged(TaskChangedEvent.deleted(id));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        String body = awaitCount(stream, "event:deleted", publishers * eventsEach);
+        assertThat(body).doesNotContain("event:resync");
+        List<Long> sequences = new ArrayList<>();
+        Matcher matcher = DELETED_ID.matcher(body);
+        while (matcher.find()) {
+            sequences.add(Long.parseLong(matcher.group(1)));
+        }
+        // Delivered in order without gaps
+        assertThat(sequences).hasSize(publishers * eventsEach).isSorted();
+        assertThat(sequences.get(sequences.size() - 1) - sequences.get(0)).isEqualTo(sequences.size() - 1);
+    }
+
+    @Test
+    void stream_ShouldKeepDelivering_WhenASubscriberStopsReading() throws Exception {
+        // One sender thread, so the stalled subscriber would hold up everyone without the write timeout
+        Deque<SseEmitter> emitters = new ConcurrentLinkedDeque<>();
+        TaskChangeFeed feed = new TaskChangeFeed(objectMapper, 1024, 100, 1000, 1, 100,
+                Duration.ofMinutes(30), Duration.ofMinutes(15), Duration.ofMillis(200)) {
+            @Override
+            protected SseEmitter createEmitter(long timeoutMillis) {
+                return emitters.removeFirst();
+            }
+        };
+        List<String> received = new CopyOnWriteArrayList<>();
+        emitters.add(new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder event) throws IOException {
+                try {
+                    new CountDownLatch(1).await();
+                } catch (InterruptedException ex) {
+                    throw new IOException("Write interrupted", ex);
+                }
+            }
+        });
+        emitters.add(new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder event) {
+                event.build().forEach(part -> received.add(part.getData().toString()));
+            }
+        });
+
+        try {
+            feed.subscribe(null);
+            feed.subscribe(null);
+            feed.onTaskChanged(TaskChangedEvent.deleted(9101L));
+            feed.onTaskChanged(TaskChangedEvent.deleted(9102L));
+
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (!String.join("", received).contains("\"taskId\":9102") && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertThat(String.join("", received)).contains("\"taskId\":9101", "\"taskId\":9102");
+            assertThat(feed.getSubscriberCount()).isEqualTo(1);
+        } finally {
+            feed.shutdown();
+        }
+    }
+
+    @Test
+    void stream_ShouldAskForResync_WhenLastEventIdUnknown() throws Exception {
+        MvcResult stream = openStream("stale-42");
+
+        assertThat(awaitContent(stream, "event:resync")).isNotEmpty();
+    }
+
+    private MvcResult openStream(String lastEventId) throws Exception {
+        MockHttpServletRequestBuilder builder = get("/api/tasks/stream");
+        if (lastEventId != null) {
+            builder.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    // Events are sent from the feed's own threads, so wait for them to reach the response
+    private String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        String body = result.getResponse().getContentAsString();
+        while (!body.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            body = result.getResponse().getContentAsString();
+        }
+        assertThat(body).contains(expected);
+        return body;
+    }
+
+    private String awaitCount(MvcResult result, String expected, int count) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        String body = result.getResponse().getContentAsString();
+        while (occurrences(body, expected) < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            body = result.getResponse().getContentAsString();
+        }
+        assertThat(occurrences(body, expected)).isEqualTo(count);
+        return body;
+    }
+
+    private static int occurrences(String body, String expected) {
+        int count = 0;
+        for (int i = body.indexOf(expected); i >= 0; i = body.indexOf(expected, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    private static TaskDTO task(Long id) {
+        return TaskDTO.builder()
+                .id(id)
+                .title("Task " + id)
+                .status(Task.TaskStatus.PENDING)
+                .dueDate(LocalDateTime.now().plusDays(1))
+                .version(0L)
+                .build();
+    }
+}
@@ -4,14 +4,26 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import scot.oskar.hmcts.backend.data.dto.TaskBatchResultDTO;
 import scot.oskar.hmcts.backend.data.dto.TaskCreateDTO;
 import scot.oskar.hmcts.backend.data.dto.TaskDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskPageDTO;
 import scot.oskar.hmcts.backend.data.dto.TaskUpdateDTO;
 import scot.oskar.hmcts.backend.data.model.Task;
+import scot.oskar.hmcts.backend.data.query.TaskFilter;
+import scot.oskar.hmcts.backend.exception.PreconditionFailedException;
 import scot.oskar.hmcts.backend.exception.ResourceNotFoundException;
+import scot.oskar.hmcts.backend.exception.ValidationException;
+import scot.oskar.hmcts.backend.service.TaskETags;
 import scot.oskar.hmcts.backend.service.TaskService;
 
 import java.time.LocalDateTime;
@@ -19,11 +31,18 @@ import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -90,6 +109,71 @@ class TaskControllerTest extends AbstractControllerTest {
         verify(taskService, times(1)).createTask(any(TaskCreateDTO.class));
     }
 
+    @Test
+    void createTask_ShouldReplayOriginalResponse_WhenIdempotencyKeyIsRepeated() throws Exception {
+        when(taskService.createTask(any(TaskCreateDTO.class))).thenReturn(taskDTO);
+        String key = UUID.randomUUID().toString();
+
+        mockMvc.perform(post("/api/tasks")
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(taskCreateDTO)))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"));
+
+        mockMvc.perform(post("/api/tasks")
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(taskCreateDTO)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.id", is(1)))
+                .andExpect(jsonPath("$.title", is("Test Task")));
+
+        verify(taskService, times(1)).createTask(any(TaskCreateDTO.class));
+    }
+
+    @Test
+    void createTask_ShouldReturn422_WhenIdempotencyKeyIsReusedForDifferentTask() throws Exception {
+        when(taskService.createTask(any(TaskCreateDTO.class))).thenReturn(taskDTO);
+        String key = UUID.randomUUID().toString();
+
+        mockMvc.perform(post("/api/tasks")
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(taskCreateDTO)))
+                .andExpect(status().isCreated());
+
+        taskCreateDTO.setTitle("Different Task");
+        mockMvc.perform(post("/api/tasks")
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(taskCreateDTO)))
+                .andExpect(status().isUnprocessableEntity());
+
+        verify(taskService, times(1)).createTask(any(TaskCreateDTO.class));
+    }
+
+    @Test
+    void createTasks_ShouldReturn200_WithResultPerItem() throws Exception {
+        List<TaskBatchResultDTO> results = List.of(
+                TaskBatchResultDTO.success(0, HttpStatus.CREATED, taskDTO),
+                TaskBatchResultDTO.failure(1, HttpStatus.BAD_REQUEST, List.of("Title is required")));
+        when(taskService.createTasks(anyList())).thenReturn(results);
+
+        mockMvc.perform(post("/api/tasks/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(taskCreateDTO, taskCreateDTO))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].status", is(201)))
+                .andExpect(jsonPath("$[0].task.id", is(1)))
+                .andExpect(jsonPath("$[1].status", is(400)))
+                .andExpect(jsonPath("$[1].errors[0]", is("Title is required")));
+
+        verify(taskService, times(1)).createTasks(anyList());
+    }
+
     @Test
     void getTaskById_ShouldReturn200_WhenTaskExists() throws Exception {
         when(taskService.getTaskById(1L)).thenReturn(taskDTO);
@@ -102,6 +186,31 @@ class TaskControllerTest extends AbstractControllerTest {
         verify(taskService, times(1)).getTaskById(1L);
     }
 
+    @Test
+    void getTaskById_ShouldReturn304_WithoutLoadingTask_WhenETagMatches() throws Exception {
+        when(taskService.getTaskLastModified(1L)).thenReturn(taskDTO.getUpdatedAt());
+
+        mockMvc.perform(get("/api/tasks/{id}", 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, TaskETags.of(taskDTO)))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, TaskETags.of(taskDTO)))
+                .andExpect(content().string(""));
+
+        verify(taskService, never()).getTaskById(any());
+    }
+
+    @Test
+    void getTaskById_ShouldReturn200_WhenETagIsStale() throws Exception {
+        when(taskService.getTaskLastModified(1L)).thenReturn(taskDTO.getUpdatedAt());
+        when(taskService.getTaskById(1L)).thenReturn(taskDTO);
+
+        mockMvc.perform(get("/api/tasks/{id}", 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1-0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, TaskETags.of(taskDTO)))
+                .andExpect(jsonPath("$.id", is(1)));
+    }
+
     @Test
     void getTaskById_ShouldReturn404_WhenTaskDoesNotExist() throws Exception {
         when(taskService.getTaskById(1L)).thenThrow(new ResourceNotFoundException("Task not found with id: 1"));
@@ -113,31 +222,197 @@ class TaskControllerTest extends AbstractControllerTest {
     }
 
     @Test
-    void getAllTasks_ShouldReturn200_WithListOfTasks() throws Exception {
-        List<TaskDTO> tasks = Collections.singletonList(taskDTO);
-        when(taskService.getAllTasks()).thenReturn(tasks);
+    void getTasks_ShouldReturn200_WithPageOfTasks() throws Exception {
+        TaskPageDTO page = TaskPageDTO.builder()
+                .items(Collections.singletonList(taskDTO))
+                .nextCursor("next")
+                .build();
+        when(taskService.getTasks(any(TaskFilter.class), isNull(), isNull())).thenReturn(page);
 
         mockMvc.perform(get("/api/tasks"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(1)))
-                .andExpect(jsonPath("$[0].id", is(1)))
-                .andExpect(jsonPath("$[0].title", is("Test Task")));
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].id", is(1)))
+                .andExpect(jsonPath("$.items[0].title", is("Test Task")))
+                .andExpect(jsonPath("$.nextCursor", is("next")));
 
-        verify(taskService, times(1)).getAllTasks();
+        verify(taskService, times(1)).getTasks(any(TaskFilter.class), isNull(), isNull());
+    }
+
+    @Test
+    void getTasks_ShouldReturn304_WhenPageUnchanged() throws Exception {
+        TaskPageDTO page = TaskPageDTO.builder()
+                .items(Collections.singletonList(taskDTO))
+                .nextCursor("next")
+                .build();
+        when(taskService.getTasks(any(TaskFilter.class), isNull(), isNull())).thenReturn(page);
+
+        mockMvc.perform(get("/api/tasks")
+                        .header(HttpHeaders.IF_NONE_MATCH, TaskETags.of(page)))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getTasks_ShouldReturnPage_WhenTaskOnPageChanged() throws Exception {
+        TaskPageDTO before = TaskPageDTO.builder().items(Collections.singletonList(taskDTO)).build();
+        String etag = TaskETags.of(before);
+        taskDTO.setVersion(taskDTO.getVersion() != null ? taskDTO.getVersion() + 1 : 1L);
+        when(taskService.getTasks(any(TaskFilter.class), isNull(), isNull()))
+                .thenReturn(TaskPageDTO.builder().items(Collections.singletonList(taskDTO)).build());
+
+        mockMvc.perform(get("/api/tasks")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)));
+    }
+
+    @Test
+    void getTasks_ShouldReturnCbor_WhenRequested() throws Exception {
+        TaskPageDTO page = TaskPageDTO.builder()
+                .items(Collections.singletonList(taskDTO))
+                .nextCursor("next")
+                .build();
+        when(taskService.getTasks(any(TaskFilter.class), isNull(), isNull())).thenReturn(page);
+
+        byte[] body = mockMvc.perform(get("/api/tasks").accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(containsString(HttpHeaders.ACCEPT))))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        TaskPageDTO decoded = Jackson2ObjectMapperBuilder.cbor().build().readValue(body, TaskPageDTO.class);
+        assertThat(decoded.getItems()).hasSize(1);
+        assertThat(decoded.getItems().get(0).getTitle()).isEqualTo("Test Task");
+        assertThat(decoded.getNextCursor()).isEqualTo("next");
+    }
+
+    @Test
+    void getTasks_ShouldPassFiltersAndCursor() throws Exception {
+        TaskPageDTO page = TaskPageDTO.builder().items(Collections.emptyList()).build();
+        when(taskService.getTasks(any(TaskFilter.class), eq("abc"), eq(10))).thenReturn(page);
+
+        mockMvc.perform(get("/api/tasks")
+                        .param("status", "PENDING")
+                        .param("dueBefore", dueDateStr)
+                        .param("cursor", "abc")
+                        .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(0)));
+
+        verify(taskService, times(1)).getTasks(
+                eq(TaskFilter.builder().status(Task.TaskStatus.PENDING).dueBefore(dueDate.withNano(0)).build()),
+                eq("abc"), eq(10));
+    }
+
+    @Test
+    void getTasks_ShouldReturn400_WhenPageSizeInvalid() throws Exception {
+        when(taskService.getTasks(any(TaskFilter.class), isNull(), eq(1000)))
+                .thenThrow(new ValidationException("Page size must be between 1 and 200"));
+
+        mockMvc.perform(get("/api/tasks").param("limit", "1000"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void exportTasks_ShouldStreamNewlineDelimitedJson() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<TaskDTO> consumer = invocation.getArgument(1);
+            consumer.accept(taskDTO);
+            consumer.accept(taskDTO);
+            return null;
+        }).when(taskService).exportTasks(any(TaskFilter.class), any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get("/api/tasks/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines[1], TaskDTO.class).getId()).isEqualTo(1L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void exportTasks_ShouldStreamCborSequence_WhenRequested() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<TaskDTO> consumer = invocation.getArgument(1);
+            consumer.accept(taskDTO);
+            consumer.accept(taskDTO);
+            return null;
+        }).when(taskService).exportTasks(any(TaskFilter.class), any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get("/api/tasks/export").accept("application/cbor-seq"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor-seq"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<TaskDTO> tasks = Jackson2ObjectMapperBuilder.cbor().build()
+                .readerFor(TaskDTO.class)
+                .<TaskDTO>readValues(body)
+                .readAll();
+        assertThat(tasks).hasSize(2);
+        assertThat(tasks.get(1).getId()).isEqualTo(1L);
     }
 
     @Test
     void updateTask_ShouldReturn200_WhenTaskExists() throws Exception {
-        when(taskService.updateTask(eq(1L), any(TaskUpdateDTO.class))).thenReturn(taskDTO);
+        when(taskService.updateTask(eq(1L), any(TaskUpdateDTO.class), isNull())).thenReturn(taskDTO);
 
         mockMvc.perform(put("/api/tasks/{id}", 1L)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(taskUpdateDTO)))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, TaskETags.of(taskDTO)))
                 .andExpect(jsonPath("$.id", is(1)))
                 .andExpect(jsonPath("$.title", is("Test Task")));
 
-        verify(taskService, times(1)).updateTask(eq(1L), any(TaskUpdateDTO.class));
+        verify(taskService, times(1)).updateTask(eq(1L), any(TaskUpdateDTO.class), isNull());
+    }
+
+    @Test
+    void updateTask_ShouldReturn412_WhenIfMatchIsStale() throws Exception {
+        when(taskService.updateTask(eq(1L), any(TaskUpdateDTO.class), eq("\"1-0\"")))
+                .thenThrow(new PreconditionFailedException("Task 1 has been modified"));
+
+        mockMvc.perform(put("/api/tasks/{id}", 1L)
+                        .header(HttpHeaders.IF_MATCH, "\"1-0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(taskUpdateDTO)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void updateTask_ShouldReturn409_WhenTaskModifiedConcurrently() throws Exception {
+        when(taskService.updateTask(eq(1L), any(TaskUpdateDTO.class), isNull()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Task.class, 1L));
+
+        mockMvc.perform(put("/api/tasks/{id}", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(taskUpdateDTO)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status", is("CONFLICT")));
+    }
+
+    @Test
+    void updateTask_ShouldReturn409_WhenTaskMovedToArchiveConcurrently() throws Exception {
+        when(taskService.updateTask(eq(1L), any(TaskUpdateDTO.class), isNull()))
+                .thenThrow(new CannotAcquireLockException("tuple to be locked was already moved to another partition"));
+
+        mockMvc.perform(put("/api/tasks/{id}", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(taskUpdateDTO)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status", is("CONFLICT")));
     }
 
     @Test
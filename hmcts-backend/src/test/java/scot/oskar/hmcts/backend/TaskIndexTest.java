@@ -0,0 +1,80 @@
+package scot.oskar.hmcts.backend;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaskIndexTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // Seed 50k tasks: 2% open (PENDING / IN_PROGRESS), the rest COMPLETED, due dates spread over a year
+        jdbcTemplate.update("""
+                INSERT INTO tasks (title, status, due_date, created_at, updated_at)
+                SELECT 'Seeded task ' || n,
+                       CASE n % 100 WHEN 0 THEN 0 WHEN 1 THEN 1 ELSE 2 END,
+                       now() + ((n % 365) - 180) * interval '1 day',
+                       now(),
+                       now()
+                FROM generate_series(1, 50000) AS n
+                """);
+        jdbcTemplate.execute("ANALYZE tasks");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM tasks");
+    }
+
+    // Queries filter on NOT archived as the repositories do, so only the hot partition is planned
+
+    @Test
+    void findByStatusAndDueDateBefore_ShouldUseIndex() {
+        String plan = explain("SELECT * FROM tasks WHERE NOT archived AND status = 0 AND due_date < now()");
+
+        assertThat(plan).doesNotContain("Seq Scan");
+        assertThat(plan).containsAnyOf("idx_tasks_hot_status_due_date", "idx_tasks_hot_open_due_date");
+    }
+
+    @Test
+    void findByDueDateBefore_ShouldUseDueDateIndex() {
+        String plan = explain("SELECT * FROM tasks WHERE NOT archived AND due_date < now() - interval '175 days'");
+
+        assertThat(plan).doesNotContain("Seq Scan");
+        assertThat(plan).contains("idx_tasks_hot_due_date");
+    }
+
+    @Test
+    void openTasksOverdue_ShouldUsePartialIndex() {
+        String plan = explain("SELECT * FROM tasks WHERE NOT archived AND status IN (0, 1) AND due_date < now()");
+
+        assertThat(plan).doesNotContain("Seq Scan");
+        assertThat(plan).contains("idx_tasks_hot_open_due_date");
+    }
+
+    @Test
+    void hotPartitionQuery_ShouldNotScanArchive() {
+        String plan = explain("SELECT * FROM tasks WHERE NOT archived AND status = 0 AND due_date < now()");
+
+        assertThat(plan).doesNotContain("tasks_archive");
+    }
+
+    @Test
+    void statusFilteredPage_ShouldReadIndexInOrder() {
+        String plan = explain("SELECT * FROM tasks WHERE NOT archived AND status = 1 ORDER BY due_date, id LIMIT 51");
+
+        assertThat(plan).doesNotContain("Seq Scan").doesNotContain("Sort");
+        assertThat(plan).containsAnyOf("idx_tasks_hot_status_due_date", "idx_tasks_hot_open_due_date");
+    }
+
+    private String explain(String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+    }
+}
@@ -0,0 +1,113 @@
+package scot.oskar.hmcts.backend;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import scot.oskar.hmcts.backend.data.dto.TaskCreateDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskDTO;
+import scot.oskar.hmcts.backend.data.model.Task;
+import scot.oskar.hmcts.backend.event.InMemoryTaskEventPublisher;
+import scot.oskar.hmcts.backend.event.OutboxMessage;
+import scot.oskar.hmcts.backend.event.TaskChangedEvent;
+import scot.oskar.hmcts.backend.repository.TaskRepository;
+import scot.oskar.hmcts.backend.service.OutboxRelay;
+import scot.oskar.hmcts.backend.service.TaskService;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TaskOutboxTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private InMemoryTaskEventPublisher publisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private TaskCreateDTO taskCreateDTO;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM task_outbox");
+        publisher.clear();
+        taskCreateDTO = TaskCreateDTO.builder()
+                .title("Outbox Task")
+                .status(Task.TaskStatus.PENDING)
+                .dueDate(LocalDateTime.now().plusDays(1))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskRepository.deleteAll();
+    }
+
+    @Test
+    void changes_ShouldBeWrittenToOutbox_AndRelayedInOrder() {
+        TaskDTO created = taskService.createTask(taskCreateDTO);
+        taskService.updateTaskStatus(created.getId(), Task.TaskStatus.COMPLETED);
+        taskService.deleteTask(created.getId());
+        assertThat(outboxSize()).isEqualTo(3);
+
+        assertThat(outboxRelay.relayPending()).isEqualTo(3);
+
+        assertThat(publisher.getPublished())
+                .extracting(OutboxMessage::getType)
+                .containsExactly(TaskChangedEvent.Type.CREATED, TaskChangedEvent.Type.STATUS_CHANGED,
+                        TaskChangedEvent.Type.DELETED);
+        assertThat(publisher.getPublished().get(1).getPayload()).contains("\"status\":\"COMPLETED\"");
+        assertThat(outboxSize()).isZero();
+    }
+
+    @Test
+    void failedWrite_ShouldLeaveNoOutboxRow() {
+        // The events are published before the transaction fails, so only the rollback keeps them out
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            TaskDTO created = taskService.createTask(taskCreateDTO);
+            taskService.updateTaskStatus(created.getId(), Task.TaskStatus.COMPLETED);
+            throw new IllegalStateException("Write failed after publishing");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(outboxSize()).isZero();
+        assertThat(taskRepository.count()).isZero();
+
+        taskService.createTasks(Collections.nCopies(3, taskCreateDTO));
+        assertThat(outboxSize()).isEqualTo(3);
+    }
+
+    @Test
+    void failedDelivery_ShouldKeepEventsForRetry() {
+        taskService.createTask(taskCreateDTO);
+        publisher.failNextPublish();
+
+        assertThatThrownBy(() -> outboxRelay.relayPending())
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(outboxSize()).isEqualTo(1);
+
+        assertThat(outboxRelay.relayPending()).isEqualTo(1);
+        assertThat(publisher.getPublished()).hasSize(1);
+        assertThat(outboxSize()).isZero();
+    }
+
+    private int outboxSize() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM task_outbox", Integer.class);
+    }
+}
@@ -3,6 +3,7 @@ package scot.oskar.hmcts.backend;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import scot.oskar.hmcts.backend.data.dto.TaskDTO;
 import scot.oskar.hmcts.backend.data.model.Task;
 import scot.oskar.hmcts.backend.repository.TaskRepository;
 
@@ -118,4 +119,20 @@ class TaskRepositoryTest extends AbstractIntegrationTest {
         assertThat(pendingOverdueTasks).hasSize(1);
         assertThat(pendingOverdueTasks.get(0).getTitle()).isEqualTo("Test Task 3");
     }
+
+    @Test
+    void shouldProjectTaskIntoDto() {
+        Task savedTask = taskRepository.save(task1);
+
+        // Find by ID without loading the entity
+        TaskDTO foundTask = taskRepository.findDtoById(savedTask.getId()).orElse(null);
+
+        // Assert
+        assertThat(foundTask).isNotNull();
+        assertThat(foundTask.getId()).isEqualTo(savedTask.getId());
+        assertThat(foundTask.getTitle()).isEqualTo("Test Task 1");
+        assertThat(foundTask.getStatus()).isEqualTo(Task.TaskStatus.PENDING);
+        assertThat(foundTask.getVersion()).isEqualTo(savedTask.getVersion());
+        assertThat(taskRepository.findDtoById(Long.MAX_VALUE)).isEmpty();
+    }
 }
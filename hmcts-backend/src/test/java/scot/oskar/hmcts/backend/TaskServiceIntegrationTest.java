@@ -4,16 +4,31 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import scot.oskar.hmcts.backend.data.dto.TaskBatchResultDTO;
 import scot.oskar.hmcts.backend.data.dto.TaskCreateDTO;
 import scot.oskar.hmcts.backend.data.dto.TaskDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskPageDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskSearchPageDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskSearchResultDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskStatsDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskStatusChangeDTO;
 import scot.oskar.hmcts.backend.data.dto.TaskUpdateDTO;
 import scot.oskar.hmcts.backend.data.model.Task;
+import scot.oskar.hmcts.backend.data.query.TaskFilter;
+import scot.oskar.hmcts.backend.exception.PreconditionFailedException;
 import scot.oskar.hmcts.backend.exception.ResourceNotFoundException;
 import scot.oskar.hmcts.backend.repository.TaskRepository;
+import scot.oskar.hmcts.backend.repository.TaskStatsRepository;
+import scot.oskar.hmcts.backend.service.TaskCache;
+import scot.oskar.hmcts.backend.service.TaskETags;
 import scot.oskar.hmcts.backend.service.TaskService;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -26,6 +41,12 @@ class TaskServiceIntegrationTest extends AbstractIntegrationTest {
     @Autowired
     private TaskRepository taskRepository;
 
+    @Autowired
+    private TaskCache taskCache;
+
+    @Autowired
+    private TaskStatsRepository taskStatsRepository;
+
     private TaskCreateDTO taskCreateDTO;
     private LocalDateTime dueDate;
 
@@ -92,6 +113,104 @@ class TaskServiceIntegrationTest extends AbstractIntegrationTest {
         assertThat(updatedTask.getStatus()).isEqualTo(Task.TaskStatus.IN_PROGRESS);
     }
 
+    @Test
+    void shouldUpdateTask_OnlyWhileIfMatchIsCurrent() {
+        TaskDTO createdTask = taskService.createTask(taskCreateDTO);
+        String originalETag = TaskETags.of(createdTask);
+        TaskUpdateDTO updateDTO = TaskUpdateDTO.builder()
+                .title("Updated Task Title")
+                .description("Updated Task Description")
+                .status(Task.TaskStatus.IN_PROGRESS)
+                .dueDate(dueDate)
+                .build();
+
+        TaskDTO updatedTask = taskService.updateTask(createdTask.getId(), updateDTO, originalETag);
+
+        // The returned tag reflects the write, and matches what a conditional read computes
+        assertThat(TaskETags.of(updatedTask)).isNotEqualTo(originalETag);
+        assertThat(TaskETags.of(createdTask.getId(), taskService.getTaskLastModified(createdTask.getId())))
+                .isEqualTo(TaskETags.of(updatedTask));
+        assertThatThrownBy(() -> taskService.updateTask(createdTask.getId(), updateDTO, originalETag))
+                .isInstanceOf(PreconditionFailedException.class);
+    }
+
+    @Test
+    void shouldRejectUpdate_BasedOnStaleVersion() {
+        TaskDTO createdTask = taskService.createTask(taskCreateDTO);
+        TaskDTO changed = taskService.updateTaskStatus(createdTask.getId(), Task.TaskStatus.IN_PROGRESS);
+        assertThat(changed.getVersion()).isEqualTo(createdTask.getVersion() + 1);
+
+        TaskUpdateDTO staleUpdate = TaskUpdateDTO.builder()
+                .title("Edited from an old copy")
+                .status(Task.TaskStatus.PENDING)
+                .version(createdTask.getVersion())
+                .build();
+
+        assertThatThrownBy(() -> taskService.updateTask(createdTask.getId(), staleUpdate))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(taskRepository.findById(createdTask.getId()).orElseThrow().getStatus())
+                .isEqualTo(Task.TaskStatus.IN_PROGRESS);
+    }
+
+    @Test
+    void shouldSearchTasks_RankingTitleMatchesFirst() {
+        taskService.createTask(TaskCreateDTO.builder()
+                .title("Prepare witness statements")
+                .description("Collect statements before the hearing. " + "Background notes. ".repeat(40))
+                .status(Task.TaskStatus.PENDING)
+                .dueDate(dueDate)
+                .build());
+        taskService.createTask(TaskCreateDTO.builder()
+                .title("Book hearing room")
+                .description("Court 3 for the preliminary hearing")
+                .status(Task.TaskStatus.PENDING)
+                .dueDate(dueDate)
+                .build());
+        taskService.createTask(taskCreateDTO);
+
+        TaskSearchPageDTO page = taskService.searchTasks("hearings", null, null);
+
+        assertThat(page.getItems()).extracting(result -> result.getTask().getTitle())
+                .containsExactly("Book hearing room", "Prepare witness statements");
+        assertThat(page.getItems().get(0).getSnippet()).contains("<mark>hearing</mark>");
+        assertThat(page.getItems()).extracting(TaskSearchResultDTO::getRank)
+                .isSortedAccordingTo((a, b) -> Double.compare(b, a));
+        assertThat(page.getNextOffset()).isNull();
+    }
+
+    @Test
+    void shouldSearchTasks_HighlightingTitleOnlyMatches() {
+        taskService.createTask(TaskCreateDTO.builder()
+                .title("Serve subpoena")
+                .description("Post it to the registered address")
+                .status(Task.TaskStatus.PENDING)
+                .dueDate(dueDate)
+                .build());
+
+        TaskSearchPageDTO page = taskService.searchTasks("subpoena", null, null);
+
+        assertThat(page.getItems()).hasSize(1);
+        assertThat(page.getItems().get(0).getSnippet()).contains("<mark>subpoena</mark>");
+    }
+
+    @Test
+    void shouldSearchTasks_EscapingHtmlInSnippets() {
+        taskService.createTask(TaskCreateDTO.builder()
+                .title("Chase affidavit")
+                .description("<script>alert('x')</script> affidavit & exhibits")
+                .status(Task.TaskStatus.PENDING)
+                .dueDate(dueDate)
+                .build());
+
+        TaskSearchPageDTO page = taskService.searchTasks("affidavit", null, null);
+
+        assertThat(page.getItems()).hasSize(1);
+        String snippet = page.getItems().get(0).getSnippet();
+        assertThat(snippet).contains("<mark>affidavit</mark>", "&amp;");
+        // The only markup left is the highlighting
+        assertThat(snippet.replace("<mark>", "").replace("</mark>", "")).doesNotContain("<", ">");
+    }
+
     @Test
     void shouldUpdateTaskStatus() {
         // Create a task
@@ -107,6 +226,14 @@ class TaskServiceIntegrationTest extends AbstractIntegrationTest {
         assertThat(updatedTask.getStatus()).isEqualTo(Task.TaskStatus.COMPLETED);
     }
 
+    @Test
+    void shouldReturnNotFound_WhenChangingStatusOfMissingTask() {
+        assertThatThrownBy(() -> taskService.updateTaskStatus(Long.MAX_VALUE, Task.TaskStatus.COMPLETED))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> taskService.deleteTask(Long.MAX_VALUE))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
     @Test
     void shouldDeleteTask() {
         // Create a task
@@ -133,10 +260,179 @@ class TaskServiceIntegrationTest extends AbstractIntegrationTest {
         taskService.createTask(task2);
 
         // Get all tasks
-        List<TaskDTO> allTasks = taskService.getAllTasks();
+        TaskPageDTO allTasks = taskService.getTasks(TaskFilter.none(), null, null);
 
         // Verify
         assertThat(allTasks).isNotNull();
-        assertThat(allTasks).hasSize(2);
+        assertThat(allTasks.getItems()).hasSize(2);
+        assertThat(allTasks.getNextCursor()).isNull();
+    }
+
+    @Test
+    void shouldPageThroughTasksWithCursor() {
+        // Create tasks sharing a due date so the ID tie-breaker is exercised
+        for (int i = 0; i < 5; i++) {
+            taskService.createTask(taskCreateDTO);
+        }
+
+        // Follow the cursor two tasks at a time
+        List<Long> seenIds = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            TaskPageDTO page = taskService.getTasks(TaskFilter.none(), cursor, 2);
+            page.getItems().forEach(task -> seenIds.add(task.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // Verify every task was returned exactly once, in order
+        assertThat(pages).isEqualTo(3);
+        assertThat(seenIds).hasSize(5).doesNotHaveDuplicates().isSorted();
+    }
+
+    @Test
+    void shouldFilterTasksByStatusAndDueDate() {
+        // Create tasks with different statuses and due dates
+        taskService.createTask(taskCreateDTO);
+        taskService.createTask(TaskCreateDTO.builder()
+                .title("Later Task")
+                .status(Task.TaskStatus.PENDING)
+                .dueDate(dueDate.plusDays(10))
+                .build());
+        taskService.createTask(TaskCreateDTO.builder()
+                .title("In Progress Task")
+                .status(Task.TaskStatus.IN_PROGRESS)
+                .dueDate(dueDate)
+                .build());
+
+        // Filter to pending tasks due within the next few days
+        TaskFilter filter = TaskFilter.builder()
+                .status(Task.TaskStatus.PENDING)
+                .dueBefore(dueDate.plusDays(5))
+                .build();
+        TaskPageDTO page = taskService.getTasks(filter, null, null);
+
+        // Verify
+        assertThat(page.getItems()).hasSize(1);
+        assertThat(page.getItems().get(0).getTitle()).isEqualTo("Integration Test Task");
+    }
+
+    @Test
+    void shouldExportTasksMatchingFilter() {
+        // Create tasks with different statuses
+        taskService.createTask(taskCreateDTO);
+        taskService.createTask(TaskCreateDTO.builder()
+                .title("Completed Task")
+                .status(Task.TaskStatus.COMPLETED)
+                .dueDate(dueDate)
+                .build());
+
+        // Export everything, then only completed tasks
+        List<TaskDTO> exported = new ArrayList<>();
+        taskService.exportTasks(TaskFilter.none(), exported::add);
+
+        List<TaskDTO> completed = new ArrayList<>();
+        taskService.exportTasks(TaskFilter.builder().status(Task.TaskStatus.COMPLETED).build(), completed::add);
+
+        // Verify
+        assertThat(exported).hasSize(2);
+        assertThat(exported.get(0).getCreatedAt()).isNotNull();
+        assertThat(completed).extracting(TaskDTO::getTitle).containsExactly("Completed Task");
+    }
+
+    @Test
+    void shouldCreateAndUpdateTasksInBatch() {
+        // Create a batch containing one invalid item
+        TaskCreateDTO invalid = TaskCreateDTO.builder().status(Task.TaskStatus.PENDING).dueDate(dueDate).build();
+        List<TaskBatchResultDTO> created = taskService.createTasks(List.of(taskCreateDTO, invalid, taskCreateDTO));
+
+        // Verify the valid items were created and the invalid one reported
+        assertThat(created).extracting(TaskBatchResultDTO::getStatus).containsExactly(201, 400, 201);
+        assertThat(created.get(1).getErrors()).contains("Title is required");
+        assertThat(taskRepository.count()).isEqualTo(2);
+
+        // Complete both created tasks plus one that does not exist
+        Long firstId = created.get(0).getTask().getId();
+        Long secondId = created.get(2).getTask().getId();
+        List<TaskBatchResultDTO> updated = taskService.updateTaskStatuses(List.of(
+                new TaskStatusChangeDTO(firstId, Task.TaskStatus.COMPLETED),
+                new TaskStatusChangeDTO(secondId, Task.TaskStatus.COMPLETED),
+                new TaskStatusChangeDTO(Long.MAX_VALUE, Task.TaskStatus.COMPLETED)));
+
+        // Verify
+        assertThat(updated).extracting(TaskBatchResultDTO::getStatus).containsExactly(200, 200, 404);
+        assertThat(taskService.getTaskById(firstId).getStatus()).isEqualTo(Task.TaskStatus.COMPLETED);
+        assertThat(taskService.getTaskById(secondId).getStatus()).isEqualTo(Task.TaskStatus.COMPLETED);
+    }
+
+    @Test
+    void shouldNotCacheDeletedTask_WhenReaderLoadedItBeforeDelete() {
+        TaskDTO createdTask = taskService.createTask(taskCreateDTO);
+        // A reader loads the task, then is overtaken by the delete and its after-commit eviction
+        TaskDTO loaded = taskService.getTaskById(createdTask.getId());
+        taskService.deleteTask(createdTask.getId());
+
+        taskCache.put(loaded);
+
+        assertThat(taskCache.get(createdTask.getId())).isNull();
+        assertThatThrownBy(() -> taskService.getTaskById(createdTask.getId()))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void shouldServeRepeatedReadsFromCacheAndRefreshOnUpdate() {
+        // Create a task, then read it twice
+        TaskDTO createdTask = taskService.createTask(taskCreateDTO);
+        taskService.getTaskById(createdTask.getId());
+        long hitsBefore = taskCache.stats().hitCount();
+        taskService.getTaskById(createdTask.getId());
+
+        // Verify the second read was a hit
+        assertThat(taskCache.stats().hitCount()).isEqualTo(hitsBefore + 1);
+
+        // Update the status and read again
+        taskService.updateTaskStatus(createdTask.getId(), Task.TaskStatus.COMPLETED);
+
+        // Verify the cached copy was refreshed after commit
+        assertThat(taskService.getTaskById(createdTask.getId()).getStatus()).isEqualTo(Task.TaskStatus.COMPLETED);
+    }
+
+    @Test
+    void shouldAggregateTaskStats() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate today = now.toLocalDate();
+        createTask(Task.TaskStatus.PENDING, now.minusDays(1));
+        createTask(Task.TaskStatus.COMPLETED, now.minusDays(2));
+        createTask(Task.TaskStatus.PENDING, today.plusDays(2).atTime(12, 0));
+        createTask(Task.TaskStatus.IN_PROGRESS, today.plusDays(2).atTime(15, 0));
+        createTask(Task.TaskStatus.CANCELLED, today.plusDays(3).atTime(9, 0));
+        createTask(Task.TaskStatus.PENDING, today.plusDays(10).atTime(9, 0));
+
+        TaskStatsDTO stats = taskStatsRepository.loadStats(now);
+
+        assertThat(stats.getCountsByStatus()).containsExactlyInAnyOrderEntriesOf(Map.of(
+                Task.TaskStatus.PENDING, 3L,
+                Task.TaskStatus.IN_PROGRESS, 1L,
+                Task.TaskStatus.COMPLETED, 1L,
+                Task.TaskStatus.CANCELLED, 1L));
+        assertThat(stats.getOverdueByStatus()).containsExactlyInAnyOrderEntriesOf(Map.of(
+                Task.TaskStatus.PENDING, 1L,
+                Task.TaskStatus.IN_PROGRESS, 0L,
+                Task.TaskStatus.COMPLETED, 1L,
+                Task.TaskStatus.CANCELLED, 0L));
+        assertThat(stats.getDueThisWeek()).hasSize(7);
+        assertThat(stats.getDueThisWeek().get(0).getDate()).isEqualTo(today);
+        // Only open tasks are bucketed; the cancelled task and the one due later are left out
+        assertThat(stats.getDueThisWeek()).extracting(TaskStatsDTO.DueDay::getCount)
+                .containsExactly(0L, 0L, 2L, 0L, 0L, 0L, 0L);
+    }
+
+    private void createTask(Task.TaskStatus status, LocalDateTime due) {
+        taskService.createTask(TaskCreateDTO.builder()
+                .title("Task due " + due)
+                .status(status)
+                .dueDate(due)
+                .build());
     }
 }
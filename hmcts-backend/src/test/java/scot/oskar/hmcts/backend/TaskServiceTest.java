@@ -1,18 +1,40 @@
 package scot.oskar.hmcts.backend;
 
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import scot.oskar.hmcts.backend.data.dto.TaskBatchResultDTO;
 import scot.oskar.hmcts.backend.data.dto.TaskCreateDTO;
 import scot.oskar.hmcts.backend.data.dto.TaskDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskPageDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskSearchPageDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskSearchResultDTO;
+import scot.oskar.hmcts.backend.data.dto.TaskStatusChangeDTO;
 import scot.oskar.hmcts.backend.data.dto.TaskUpdateDTO;
 import scot.oskar.hmcts.backend.data.model.Task;
+import scot.oskar.hmcts.backend.data.query.TaskCursor;
+import scot.oskar.hmcts.backend.data.query.TaskFilter;
+import scot.oskar.hmcts.backend.event.TaskChangedEvent;
 import scot.oskar.hmcts.backend.exception.ResourceNotFoundException;
+import scot.oskar.hmcts.backend.exception.ValidationException;
+import scot.oskar.hmcts.backend.repository.TaskExportRepository;
 import scot.oskar.hmcts.backend.repository.TaskRepository;
+import scot.oskar.hmcts.backend.repository.TaskSearchRepository;
 import scot.oskar.hmcts.backend.repository.TaskServiceImpl;
+import scot.oskar.hmcts.backend.service.PendingStatusChanges;
+import scot.oskar.hmcts.backend.service.TaskCache;
+import scot.oskar.hmcts.backend.service.TaskStatsCache;
+import scot.oskar.hmcts.backend.service.TaskService;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -22,6 +44,9 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,6 +55,30 @@ class TaskServiceTest {
     @Mock
     private TaskRepository taskRepository;
 
+    @Mock
+    private TaskExportRepository taskExportRepository;
+
+    @Mock
+    private TaskSearchRepository taskSearchRepository;
+
+    @Mock
+    private Validator validator;
+
+    @Mock
+    private TaskCache taskCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private TaskStatsCache taskStatsCache;
+
+    @Spy
+    private PendingStatusChanges pendingStatusChanges = new PendingStatusChanges();
+
     @InjectMocks
     private TaskServiceImpl taskService;
 
@@ -50,6 +99,7 @@ class TaskServiceTest {
                 .dueDate(dueDate)
                 .createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now())
+                .version(3L)
                 .build();
 
         taskCreateDTO = TaskCreateDTO.builder()
@@ -77,41 +127,172 @@ class TaskServiceTest {
         assertThat(result.getId()).isEqualTo(task.getId());
         assertThat(result.getTitle()).isEqualTo(task.getTitle());
         verify(taskRepository, times(1)).save(any(Task.class));
+        verify(eventPublisher, times(1)).publishEvent(TaskChangedEvent.created(result));
+    }
+
+    @Test
+    void createTasks_ShouldReportResultForEachItem() {
+        when(taskRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<TaskBatchResultDTO> results = taskService.createTasks(Arrays.asList(taskCreateDTO, null));
+
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0).getStatus()).isEqualTo(201);
+        assertThat(results.get(0).getTask().getTitle()).isEqualTo("New Task");
+        assertThat(results.get(1).getStatus()).isEqualTo(400);
+        assertThat(results.get(1).getErrors()).containsExactly("Item is required");
+        verify(taskRepository, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    void createTasks_ShouldThrowException_WhenBatchEmpty() {
+        assertThatThrownBy(() -> taskService.createTasks(List.of()))
+                .isInstanceOf(ValidationException.class);
+
+        verify(taskRepository, never()).saveAll(anyList());
+    }
+
+    private void runTransactionsInline() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void searchTasks_ShouldRejectBlankQuery() {
+        assertThatThrownBy(() -> taskService.searchTasks("  ", null, null))
+                .isInstanceOf(ValidationException.class);
+
+        verifyNoInteractions(taskSearchRepository);
+    }
+
+    @Test
+    void searchTasks_ShouldReturnNextOffset_WhenMoreResultsExist() {
+        when(taskSearchRepository.search("hearing", 20, 3)).thenReturn(List.of(
+                new TaskSearchResultDTO(), new TaskSearchResultDTO(), new TaskSearchResultDTO()));
+
+        TaskSearchPageDTO page = taskService.searchTasks("hearing", 20, 2);
+
+        assertThat(page.getItems()).hasSize(2);
+        assertThat(page.getNextOffset()).isEqualTo(22);
+    }
+
+    @Test
+    void updateTaskStatuses_ShouldReport404_ForMissingTasks() {
+        runTransactionsInline();
+        when(taskRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(task));
+
+        List<TaskBatchResultDTO> results = taskService.updateTaskStatuses(List.of(
+                new TaskStatusChangeDTO(1L, Task.TaskStatus.COMPLETED),
+                new TaskStatusChangeDTO(2L, Task.TaskStatus.COMPLETED)));
+
+        assertThat(results).extracting(TaskBatchResultDTO::getStatus).containsExactly(200, 404);
+        assertThat(results.get(0).getTask().getStatus()).isEqualTo(Task.TaskStatus.COMPLETED);
+        verify(taskRepository, times(1)).flush();
+    }
+
+    @Test
+    void updateTaskStatuses_ShouldRetry_OnVersionConflict() {
+        runTransactionsInline();
+        when(taskRepository.findAllById(List.of(1L))).thenReturn(List.of(task));
+        doThrow(new ObjectOptimisticLockingFailureException(Task.class, 1L))
+                .doNothing()
+                .when(taskRepository).flush();
+
+        List<TaskBatchResultDTO> results = taskService.updateTaskStatuses(List.of(
+                new TaskStatusChangeDTO(1L, Task.TaskStatus.COMPLETED)));
+
+        assertThat(results).extracting(TaskBatchResultDTO::getStatus).containsExactly(200);
+        verify(taskRepository, times(2)).findAllById(List.of(1L));
+    }
+
+    @Test
+    void updateTaskStatuses_ShouldGiveUp_AfterRepeatedConflicts() {
+        runTransactionsInline();
+        when(taskRepository.findAllById(List.of(1L))).thenReturn(List.of(task));
+        doThrow(new ObjectOptimisticLockingFailureException(Task.class, 1L)).when(taskRepository).flush();
+
+        assertThatThrownBy(() -> taskService.updateTaskStatuses(List.of(
+                new TaskStatusChangeDTO(1L, Task.TaskStatus.COMPLETED))))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        verify(taskRepository, times(3)).flush();
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
     }
 
     @Test
     void getTaskById_ShouldReturnTask_WhenTaskExists() {
-        when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
+        when(taskRepository.findDtoById(1L)).thenReturn(Optional.of(TaskDTO.fromEntity(task)));
 
         TaskDTO result = taskService.getTaskById(1L);
 
         assertThat(result).isNotNull();
         assertThat(result.getId()).isEqualTo(task.getId());
         assertThat(result.getTitle()).isEqualTo(task.getTitle());
-        verify(taskRepository, times(1)).findById(1L);
+        verify(taskRepository, times(1)).findDtoById(1L);
+        verify(taskCache, times(1)).put(result);
+    }
+
+    @Test
+    void getTaskById_ShouldNotQueryRepository_WhenTaskCached() {
+        TaskDTO cached = TaskDTO.fromEntity(task);
+        when(taskCache.get(1L)).thenReturn(cached);
+
+        TaskDTO result = taskService.getTaskById(1L);
+
+        assertThat(result).isSameAs(cached);
+        verifyNoInteractions(taskRepository);
     }
 
     @Test
     void getTaskById_ShouldThrowException_WhenTaskDoesNotExist() {
-        when(taskRepository.findById(1L)).thenReturn(Optional.empty());
+        when(taskRepository.findDtoById(1L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> taskService.getTaskById(1L))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessageContaining("Task not found with id: 1");
 
-        verify(taskRepository, times(1)).findById(1L);
+        verify(taskRepository, times(1)).findDtoById(1L);
     }
 
     @Test
-    void getAllTasks_ShouldReturnAllTasks() {
-        when(taskRepository.findAll()).thenReturn(Arrays.asList(task));
+    void getTasks_ShouldReturnSinglePage_WhenNoMoreTasks() {
+        when(taskRepository.findPage(any(TaskFilter.class), isNull(), eq(TaskService.DEFAULT_PAGE_SIZE + 1)))
+                .thenReturn(Arrays.asList(TaskDTO.fromEntity(task)));
 
-        List<TaskDTO> result = taskService.getAllTasks();
+        TaskPageDTO result = taskService.getTasks(TaskFilter.none(), null, null);
 
         assertThat(result).isNotNull();
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getId()).isEqualTo(task.getId());
-        verify(taskRepository, times(1)).findAll();
+        assertThat(result.getItems()).hasSize(1);
+        assertThat(result.getItems().get(0).getId()).isEqualTo(task.getId());
+        assertThat(result.getNextCursor()).isNull();
+        verify(taskRepository, times(1)).findPage(any(TaskFilter.class), isNull(), eq(TaskService.DEFAULT_PAGE_SIZE + 1));
+    }
+
+    @Test
+    void getTasks_ShouldReturnCursor_WhenMoreTasksExist() {
+        TaskDTO first = TaskDTO.fromEntity(task);
+        TaskDTO next = TaskDTO.builder().id(2L).title("Next Task").status(Task.TaskStatus.PENDING).dueDate(dueDate).build();
+        when(taskRepository.findPage(any(TaskFilter.class), isNull(), eq(2))).thenReturn(Arrays.asList(first, next));
+
+        TaskPageDTO result = taskService.getTasks(TaskFilter.none(), null, 1);
+
+        assertThat(result.getItems()).hasSize(1);
+        assertThat(result.getNextCursor()).isNotNull();
+        assertThat(TaskCursor.decode(result.getNextCursor())).isEqualTo(TaskCursor.of(first));
+    }
+
+    @Test
+    void getTasks_ShouldThrowException_WhenPageSizeOutOfBounds() {
+        assertThatThrownBy(() -> taskService.getTasks(TaskFilter.none(), null, TaskService.MAX_PAGE_SIZE + 1))
+                .isInstanceOf(ValidationException.class);
+
+        verify(taskRepository, never()).findPage(any(), any(), anyInt());
+    }
+
+    @Test
+    void getTasks_ShouldThrowException_WhenCursorInvalid() {
+        assertThatThrownBy(() -> taskService.getTasks(TaskFilter.none(), "not-a-cursor", null))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("Invalid cursor");
     }
 
     @Test
@@ -127,6 +308,17 @@ class TaskServiceTest {
         verify(taskRepository, times(1)).save(task);
     }
 
+    @Test
+    void updateTask_ShouldThrowConflict_WhenVersionIsStale() {
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
+        taskUpdateDTO.setVersion(2L);
+
+        assertThatThrownBy(() -> taskService.updateTask(1L, taskUpdateDTO))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+
+        verify(taskRepository, never()).save(any(Task.class));
+    }
+
     @Test
     void updateTask_ShouldThrowException_WhenTaskDoesNotExist() {
         when(taskRepository.findById(1L)).thenReturn(Optional.empty());
@@ -141,37 +333,51 @@ class TaskServiceTest {
 
     @Test
     void updateTaskStatus_ShouldReturnUpdatedTask_WhenTaskExists() {
-        when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
-        when(taskRepository.save(any(Task.class))).thenReturn(task);
+        task.setStatus(Task.TaskStatus.COMPLETED);
+        when(taskRepository.updateStatus(eq(1L), eq(Task.TaskStatus.COMPLETED.getCode()), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(task));
 
         TaskDTO result = taskService.updateTaskStatus(1L, Task.TaskStatus.COMPLETED);
 
         assertThat(result).isNotNull();
         assertThat(result.getId()).isEqualTo(task.getId());
-        verify(taskRepository, times(1)).findById(1L);
-        verify(taskRepository, times(1)).save(task);
+        assertThat(result.getStatus()).isEqualTo(Task.TaskStatus.COMPLETED);
+        verify(taskRepository, times(1)).updateStatus(eq(1L), eq(Task.TaskStatus.COMPLETED.getCode()), any(LocalDateTime.class));
+        verify(taskRepository, never()).findById(anyLong());
+        verify(taskRepository, never()).save(any(Task.class));
+    }
+
+    @Test
+    void updateTaskStatus_ShouldThrowException_WhenTaskDoesNotExist() {
+        when(taskRepository.updateStatus(eq(1L), anyShort(), any(LocalDateTime.class))).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> taskService.updateTaskStatus(1L, Task.TaskStatus.COMPLETED))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("Task not found with id: 1");
+
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
     }
 
     @Test
     void deleteTask_ShouldDeleteTask_WhenTaskExists() {
-        when(taskRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(taskRepository).deleteById(1L);
+        when(taskRepository.deleteTaskById(1L)).thenReturn(1);
 
         taskService.deleteTask(1L);
 
-        verify(taskRepository, times(1)).existsById(1L);
-        verify(taskRepository, times(1)).deleteById(1L);
+        verify(taskRepository, times(1)).deleteTaskById(1L);
+        verify(taskRepository, never()).existsById(anyLong());
+        verify(eventPublisher, times(1)).publishEvent(TaskChangedEvent.deleted(1L));
     }
 
     @Test
     void deleteTask_ShouldThrowException_WhenTaskDoesNotExist() {
-        when(taskRepository.existsById(1L)).thenReturn(false);
+        when(taskRepository.deleteTaskById(1L)).thenReturn(0);
 
         assertThatThrownBy(() -> taskService.deleteTask(1L))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessageContaining("Task not found with id: 1");
 
-        verify(taskRepository, times(1)).existsById(1L);
-        verify(taskRepository, never()).deleteById(anyLong());
+        verify(taskRepository, times(1)).deleteTaskById(1L);
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
     }
-}
\ No newline at end of file
+}
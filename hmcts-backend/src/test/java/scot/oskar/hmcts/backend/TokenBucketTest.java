@@ -0,0 +1,35 @@
+package scot.oskar.hmcts.backend;
+
+import org.junit.jupiter.api.Test;
+import scot.oskar.hmcts.backend.config.TokenBucket;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void tryConsume_ShouldAllowBurstThenRefillAtRate() {
+        TokenBucket bucket = new TokenBucket(10, 2, 0);
+
+        assertThat(bucket.tryConsume(0)).isZero();
+        assertThat(bucket.tryConsume(0)).isZero();
+        assertThat(bucket.tryConsume(0)).isEqualTo(100 * MILLIS);
+
+        assertThat(bucket.tryConsume(100 * MILLIS)).isZero();
+        assertThat(bucket.tryConsume(100 * MILLIS)).isEqualTo(100 * MILLIS);
+    }
+
+    @Test
+    void tryConsume_ShouldNotSaveUpMoreThanCapacity() {
+        TokenBucket bucket = new TokenBucket(10, 2, 0);
+        long later = TimeUnit.MINUTES.toNanos(1);
+
+        assertThat(bucket.tryConsume(later)).isZero();
+        assertThat(bucket.tryConsume(later)).isZero();
+        assertThat(bucket.tryConsume(later)).isPositive();
+    }
+}
@@ -1,13 +1,20 @@
 import axios from 'axios';
-import { Task, TaskCreate, TaskUpdate, TaskStatus } from '../types/task';
+import { Task, TaskChange, TaskCreate, TaskPage, TaskQuery, TaskSearchPage, TaskStats, TaskUpdate, TaskStatus } from '../types/task';
 
 const API_URL = 'http://localhost:8080/api';
 
+// Send the cookie that makes reads straight after our own writes come from the primary database
+axios.defaults.withCredentials = true;
+
+const MAX_PAGE_SIZE = 200;
+
+const CHANGE_EVENTS = ['created', 'updated', 'status_changed', 'overdue', 'deleted'];
+
 const taskApi = {
-  // Get all tasks
-  getAllTasks: async (): Promise<Task[]> => {
+  // Get a single page of tasks
+  getTasks: async (query: TaskQuery = {}): Promise<TaskPage> => {
     try {
-      const response = await axios.get(`${API_URL}/tasks`);
+      const response = await axios.get(`${API_URL}/tasks`, { params: query });
       return response.data;
     } catch (error) {
       console.error('Error fetching tasks:', error);
@@ -15,6 +22,40 @@ const taskApi = {
     }
   },
 
+  // Get all tasks by following the page cursor
+  getAllTasks: async (): Promise<Task[]> => {
+    const tasks: Task[] = [];
+    let cursor: string | undefined;
+    do {
+      const page = await taskApi.getTasks({ cursor, limit: MAX_PAGE_SIZE });
+      tasks.push(...page.items);
+      cursor = page.nextCursor ?? undefined;
+    } while (cursor);
+    return tasks;
+  },
+
+  // Search titles and descriptions, most relevant first
+  searchTasks: async (q: string, offset?: number, limit?: number): Promise<TaskSearchPage> => {
+    try {
+      const response = await axios.get(`${API_URL}/tasks/search`, { params: { q, offset, limit } });
+      return response.data;
+    } catch (error) {
+      console.error('Error searching tasks:', error);
+      throw error;
+    }
+  },
+
+  // Get dashboard counts; these may be a few seconds old
+  getTaskStats: async (): Promise<TaskStats> => {
+    try {
+      const response = await axios.get(`${API_URL}/tasks/stats`);
+      return response.data;
+    } catch (error) {
+      console.error('Error fetching task statistics:', error);
+      throw error;
+    }
+  },
+
   // Get a single task by ID
   getTaskById: async (id: number): Promise<Task> => {
     try {
@@ -59,6 +100,17 @@ const taskApi = {
     }
   },
 
+  // Listen for changes pushed by the server. The browser reconnects and resumes by itself;
+  // onResync is called when changes were missed and the tasks should be loaded again.
+  // Returns a function that closes the stream
+  subscribeToTaskChanges: (onChange: (change: TaskChange) => void, onResync: () => void): (() => void) => {
+    const source = new EventSource(`${API_URL}/tasks/stream`);
+    const handleChange = (event: MessageEvent) => onChange(JSON.parse(event.data));
+    CHANGE_EVENTS.forEach((type) => source.addEventListener(type, handleChange));
+    source.addEventListener('resync', onResync);
+    return () => source.close();
+  },
+
   // Delete a task
   deleteTask: async (id: number): Promise<void> => {
     try {
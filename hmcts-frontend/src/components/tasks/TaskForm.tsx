@@ -58,7 +58,7 @@ export function TaskForm({ initialData, isEditing = false }: TaskFormProps) {
   const onSubmit = async (data: TaskCreateInput | TaskUpdateInput) => {
     try {
       if (isEditing && initialData) {
-        await taskApi.updateTask(initialData.id, data);
+        await taskApi.updateTask(initialData.id, { ...data, version: initialData.version });
         toast.info("Task updated", {
           description: "The task has been successfully updated.",
         });
@@ -1,5 +1,5 @@
 import { useEffect, useState } from "react";
-import { Task, TaskStatus } from "@/types/task";
+import { Task, TaskChange, TaskStatus } from "@/types/task";
 import { TaskCard } from "@/components/tasks/TaskCard";
 import { Button } from "@/components/ui/button";
 import { PlusCircle } from "lucide-react";
@@ -9,6 +9,15 @@ import { Label } from "@/components/ui/label";
 import { toast } from "sonner";
 import taskApi from "@/api/taskApi";
 
+// Apply a pushed change to the list, keeping it ordered by due date
+function applyChange(tasks: Task[], change: TaskChange): Task[] {
+  const others = tasks.filter((task) => task.id !== change.taskId);
+  if (!change.task) {
+    return others;
+  }
+  return [...others, change.task].sort((a, b) => a.dueDate.localeCompare(b.dueDate));
+}
+
 export function TaskList() {
   const [tasks, setTasks] = useState<Task[]>([]);
   const [loading, setLoading] = useState(true);
@@ -30,6 +39,12 @@ export function TaskList() {
     };
 
     fetchTasks();
+
+    // Keep the list current from the change stream instead of re-fetching it
+    return taskApi.subscribeToTaskChanges(
+      (change) => setTasks((prevTasks) => applyChange(prevTasks, change)),
+      fetchTasks
+    );
   }, []);
 
   const handleDeleteTask = async (id: number) => {
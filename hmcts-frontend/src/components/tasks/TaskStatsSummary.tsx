@@ -0,0 +1,48 @@
+import { useEffect, useState } from "react";
+import { Card, CardContent, CardHeader, CardTitle } from "@/components/ui/card";
+import { TaskStats, TaskStatus } from "@/types/task";
+import { getStatusText } from "@/lib/utils";
+import taskApi from "@/api/taskApi";
+
+const OPEN_STATUSES = [TaskStatus.PENDING, TaskStatus.IN_PROGRESS];
+
+export function TaskStatsSummary() {
+  const [stats, setStats] = useState<TaskStats | null>(null);
+
+  useEffect(() => {
+    // Counts are aggregated on the server, so the dashboard never downloads the whole list for them
+    taskApi.getTaskStats().then(setStats).catch(() => setStats(null));
+  }, []);
+
+  if (!stats) {
+    return null;
+  }
+
+  const overdue = OPEN_STATUSES.reduce((sum, status) => sum + stats.overdueByStatus[status], 0);
+  const dueThisWeek = stats.dueThisWeek.reduce((sum, day) => sum + day.count, 0);
+
+  return (
+    <div className="grid grid-cols-2 md:grid-cols-3 lg:grid-cols-6 gap-4">
+      {Object.values(TaskStatus).map((status) => (
+        <Card key={status}>
+          <CardHeader className="pb-2">
+            <CardTitle className="text-sm text-muted-foreground">{getStatusText(status)}</CardTitle>
+          </CardHeader>
+          <CardContent className="text-2xl font-bold">{stats.countsByStatus[status]}</CardContent>
+        </Card>
+      ))}
+      <Card>
+        <CardHeader className="pb-2">
+          <CardTitle className="text-sm text-muted-foreground">Overdue</CardTitle>
+        </CardHeader>
+        <CardContent className="text-2xl font-bold">{overdue}</CardContent>
+      </Card>
+      <Card>
+        <CardHeader className="pb-2">
+          <CardTitle className="text-sm text-muted-foreground">Due this week</CardTitle>
+        </CardHeader>
+        <CardContent className="text-2xl font-bold">{dueThisWeek}</CardContent>
+      </Card>
+    </div>
+  );
+}
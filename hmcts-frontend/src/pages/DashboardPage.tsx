@@ -1,10 +1,14 @@
 import { TaskList } from "@/components/tasks/TaskList";
+import { TaskStatsSummary } from "@/components/tasks/TaskStatsSummary";
 
 export function DashboardPage() {
     return (
       <div className="container mx-auto py-8">
         <h1 className="text-2xl font-bold mb-6">Task Management</h1>
+        <div className="mb-6">
+          <TaskStatsSummary />
+        </div>
         <TaskList />
       </div>
     );
-  }
\ No newline at end of file
+  }
@@ -13,6 +13,8 @@ export interface Task {
     dueDate: string; // ISO date string
     createdAt: string; // ISO date string
     updatedAt: string; // ISO date string
+    version: number;
+    overdueAt?: string | null; // ISO date string, set once the task has been flagged overdue
 }
 
 export interface TaskCreate {
@@ -27,4 +29,43 @@ export interface TaskUpdate {
     description?: string;
     status?: TaskStatus;
     dueDate?: string; // ISO date string
-}
\ No newline at end of file
+    version?: number; // version the edit was based on
+}
+
+export interface TaskPage {
+    items: Task[];
+    nextCursor?: string | null; // opaque token for the following page
+}
+
+export interface TaskQuery {
+    status?: TaskStatus;
+    dueBefore?: string; // ISO date string
+    dueAfter?: string; // ISO date string
+    cursor?: string;
+    limit?: number;
+}
+
+export interface TaskSearchResult {
+    task: Task;
+    rank: number;
+    snippet: string; // matches wrapped in <mark>, other text not escaped
+}
+
+export interface TaskSearchPage {
+    items: TaskSearchResult[];
+    nextOffset: number | null; // null on the last page
+}
+
+export interface TaskStats {
+    countsByStatus: Record<TaskStatus, number>;
+    overdueByStatus: Record<TaskStatus, number>; // due date has passed
+    dueThisWeek: { date: string; count: number }[]; // open tasks due on each of the next seven days
+    generatedAt: string; // ISO date string
+}
+
+// Change pushed by the server on /api/tasks/stream
+export interface TaskChange {
+    type: 'CREATED' | 'UPDATED' | 'STATUS_CHANGED' | 'OVERDUE' | 'DELETED';
+    taskId: number;
+    task: Task | null; // null for deletions
+}